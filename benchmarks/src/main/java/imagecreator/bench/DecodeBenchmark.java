@@ -0,0 +1,68 @@
+package imagecreator.bench;
+
+import imagecreator.ImageDecoder;
+import org.openjdk.jmh.annotations.*;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Декодування: повне ImageIO.read проти декодування з субдискретизацією під цільовий розмір
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DecodeBenchmark {
+    @Param({"640x480", "1920x1080", "6000x4000"})
+    public String sourceSize;
+
+    @Param({"jpg", "png", "bmp"})
+    public String format;
+
+    @Param({"200x200"})
+    public String targetSize;
+
+    private Path directory;
+    private File source;
+    private int targetWidth;
+    private int targetHeight;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("decode-bench");
+        int[] size = SyntheticImages.parseSize(sourceSize);
+        source = SyntheticImages.write(directory, "source", size[0], size[1], format);
+        int[] target = SyntheticImages.parseSize(targetSize);
+        targetWidth = target[0];
+        targetHeight = target[1];
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        SyntheticImages.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public BufferedImage fullRead() throws IOException {
+        return ImageIO.read(source);
+    }
+
+    @Benchmark
+    public BufferedImage subsampledDecode() throws IOException {
+        ByteBuffer data = ImageDecoder.readContent(source);
+        try {
+            return ImageDecoder.decode(data, targetWidth, targetHeight);
+        } finally {
+            ImageDecoder.releaseContent(data);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package imagecreator.bench;
+
+import imagecreator.EncoderSettings;
+import imagecreator.ImageEncoder;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Кодування готової мініатюри у файл
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class EncodeBenchmark {
+    @Param({"200x150", "800x600", "1920x1080"})
+    public String size;
+
+    @Param({"jpg", "png", "bmp"})
+    public String format;
+
+    /** -1 — якість кодека за замовчуванням; для форматів без стиснення з втратами ігнорується */
+    @Param({"-1", "0.75"})
+    public float quality;
+
+    /** baseline — налаштування кодувальника за замовчуванням; для PNG рівні deflate 1 і 9 */
+    @Param({"baseline", "progressive", "444", "png-fast", "png-small"})
+    public String settings;
+
+    private Path directory;
+    private EncoderSettings encoderSettings;
+    private BufferedImage image;
+    private File output;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("encode-bench");
+        int[] dimensions = SyntheticImages.parseSize(size);
+        image = SyntheticImages.create(dimensions[0], dimensions[1], 7);
+        output = directory.resolve("out." + format).toFile();
+        encoderSettings = switch (settings) {
+            case "progressive" -> EncoderSettings.DEFAULTS.withProgressive(true);
+            case "444" -> EncoderSettings.DEFAULTS.withChromaSubsampling(EncoderSettings.ChromaSubsampling.S444);
+            case "png-fast" -> EncoderSettings.DEFAULTS.withPngCompressionLevel(1);
+            case "png-small" -> EncoderSettings.DEFAULTS.withPngCompressionLevel(9);
+            default -> EncoderSettings.DEFAULTS;
+        };
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        SyntheticImages.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public long write() throws IOException {
+        ImageEncoder.write(image, format, quality, encoderSettings, output);
+        return output.length();
+    }
+}
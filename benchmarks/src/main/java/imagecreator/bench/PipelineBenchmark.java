@@ -0,0 +1,93 @@
+package imagecreator.bench;
+
+import imagecreator.ImageCreator;
+import imagecreator.OutputSpec;
+import imagecreator.ResampleMode;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Повний прохід ImageCreator: декодування, масштабування, кодування і фіксація
+ * результатів для пакета синтетичних файлів. Один виклик — один пакет.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PipelineBenchmark {
+    @Param({"1", "4", "8"})
+    public int threads;
+
+    @Param({"1920x1080", "4000x3000"})
+    public String sourceSize;
+
+    @Param({"jpg", "png"})
+    public String format;
+
+    @Param({"BICUBIC", "MITCHELL"})
+    public ResampleMode resampleMode;
+
+    /** Читання і запис на віртуальних потоках окремо від пулу обробки */
+    @Param({"true", "false"})
+    public boolean stagedIo;
+
+    @Param({"16"})
+    public int batchSize;
+
+    private Path inputDirectory;
+    private Path outputDirectory;
+    private File[] sources;
+    private PrintStream originalOut;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        inputDirectory = Files.createTempDirectory("pipeline-bench-in");
+        int[] size = SyntheticImages.parseSize(sourceSize);
+        sources = new File[batchSize];
+        for (int i = 0; i < batchSize; i++) {
+            sources[i] = SyntheticImages.write(inputDirectory, "image" + i, size[0], size[1], format);
+        }
+        // Прогрес-повідомлення ImageCreator лише заважають читати результати JMH
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @Setup(Level.Invocation)
+    public void prepareOutput() throws IOException {
+        outputDirectory = Files.createTempDirectory("pipeline-bench-out");
+    }
+
+    @TearDown(Level.Invocation)
+    public void cleanOutput() throws IOException {
+        SyntheticImages.deleteRecursively(outputDirectory);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        System.setOut(originalOut);
+        SyntheticImages.deleteRecursively(inputDirectory);
+    }
+
+    @Benchmark
+    public int processBatch() {
+        ImageCreator creator = new ImageCreator(threads, outputDirectory.toFile());
+        creator.setResampleMode(resampleMode);
+        creator.setStagedIo(stagedIo);
+        creator.processImages(sources,
+                List.of(new OutputSpec(800, 600, null, -1f, "_800x600"),
+                        new OutputSpec(200, 150, null, -1f, "_200x150")),
+                "thumb");
+        creator.shutdown();
+        return creator.getProcessedCount();
+    }
+}
@@ -0,0 +1,79 @@
+package imagecreator.bench;
+
+import imagecreator.Java2DResampler;
+import imagecreator.ResampleMode;
+import imagecreator.Resampler;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Масштабування вже декодованого растра: режими ResampleMode та «сирі» підказки
+ * інтерполяції Java2D для порівняння. З poolThreads > 0 масштабування виконується
+ * в ForkJoinPool, і великі зображення діляться на діапазони рядків.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ScaleBenchmark {
+    @Param({"640x480", "1920x1080", "4000x3000"})
+    public String sourceSize;
+
+    @Param({"200x150", "800x600"})
+    public String targetSize;
+
+    @Param({"BICUBIC", "PROGRESSIVE", "AREA_AVERAGE", "MITCHELL", "LANCZOS3",
+            "JAVA2D_NEAREST", "JAVA2D_BILINEAR"})
+    public String resampler;
+
+    /** 0 — у потоці бенчмарку, послідовно */
+    @Param({"0", "4"})
+    public int poolThreads;
+
+    private BufferedImage source;
+    private BufferedImage target;
+    private Resampler instance;
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        int[] size = SyntheticImages.parseSize(sourceSize);
+        int[] target = SyntheticImages.parseSize(targetSize);
+        source = SyntheticImages.create(size[0], size[1], 42);
+        this.target = new BufferedImage(target[0], target[1], BufferedImage.TYPE_INT_RGB);
+        instance = switch (resampler) {
+            case "JAVA2D_NEAREST" ->
+                    new Java2DResampler(RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+            case "JAVA2D_BILINEAR" ->
+                    new Java2DResampler(RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            default -> ResampleMode.valueOf(resampler).getResampler();
+        };
+        if (poolThreads > 0) {
+            pool = new ForkJoinPool(poolThreads);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    @Benchmark
+    public BufferedImage resample() {
+        if (pool != null) {
+            pool.invoke(ForkJoinTask.adapt(() -> instance.resample(source, target)));
+        } else {
+            instance.resample(source, target);
+        }
+        return target;
+    }
+}
@@ -0,0 +1,59 @@
+package imagecreator.bench;
+
+import imagecreator.ImageEncoder;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Генерація синтетичних зображень для бенчмарків: градієнт із шумом,
+ * щоб кодеки не стискали картинку до кількох байтів
+ */
+final class SyntheticImages {
+    private SyntheticImages() {
+    }
+
+    static BufferedImage create(int width, int height, long seed) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(seed);
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int r = x * 255 / width;
+                int g = y * 255 / height;
+                int b = ((x / 32 + y / 32) & 1) * 128 + random.nextInt(64);
+                row[x] = (r << 16) | (g << 8) | b;
+            }
+            image.setRGB(0, y, width, 1, row, 0, width);
+        }
+        return image;
+    }
+
+    static File write(Path directory, String name, int width, int height, String format)
+            throws IOException {
+        File file = directory.resolve(name + "." + format).toFile();
+        ImageEncoder.write(create(width, height, name.hashCode()), format, -1f, file);
+        return file;
+    }
+
+    /** Розбір параметра виду "1920x1080" */
+    static int[] parseSize(String size) {
+        int x = size.indexOf('x');
+        return new int[]{Integer.parseInt(size.substring(0, x)), Integer.parseInt(size.substring(x + 1))};
+    }
+
+    static void deleteRecursively(Path directory) throws IOException {
+        if (directory == null || !Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package imagecreator;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Контролер допуску задач до пулу обробки. Обмежує кількість задач, що очікують
+ * у черзі пулу, та сумарний обсяг пам'яті під декодовані пікселі. Місце в черзі
+ * задача отримує при передачі, а пам'ять резервує вже на етапі читання, коли
+ * за заголовком відома оцінка.
+ */
+public class AdmissionController {
+    /** Оцінка для файлів, заголовок яких не вдалося прочитати */
+    private static final long UNKNOWN_IMAGE_BYTES = 16L * 1024 * 1024;
+
+    private long capacityBytes;
+    private int maxPendingTasks;
+    private long inFlightBytes;
+    private int pendingTasks;
+    /** Задачі, що зарезервували пам'ять */
+    private int reservedTasks;
+    /** Черга задач, що чекають на пам'ять: резервування йде в порядку надходження */
+    private final Deque<Object> waiting = new ArrayDeque<>();
+
+    public AdmissionController(long capacityBytes, int maxPendingTasks) {
+        this.capacityBytes = capacityBytes;
+        this.maxPendingTasks = maxPendingTasks;
+    }
+
+    /**
+     * Бюджет за замовчуванням: половина максимального розміру heap
+     */
+    public static long defaultCapacity() {
+        return Runtime.getRuntime().maxMemory() / 2;
+    }
+
+    /**
+     * Блокує виклик, доки в черзі пулу не з'явиться місце для задачі
+     *
+     * @return false, якщо обробку скасовано до допуску задачі
+     */
+    public synchronized boolean acquire(BatchJob job) throws InterruptedException {
+        while (!job.isCancelled() && pendingTasks > 0 && pendingTasks >= maxPendingTasks) {
+            wait();
+        }
+        if (job.isCancelled()) {
+            return false;
+        }
+        pendingTasks++;
+        return true;
+    }
+
+    /**
+     * Блокує виклик, доки оцінка bytes не вміститься в бюджет. Задача, більша за
+     * весь бюджет, допускається лише коли жодна інша задача не тримає пам'ять.
+     * Менші задачі не обганяють ту, що чекає довше.
+     *
+     * @return false, якщо обробку скасовано до резервування
+     */
+    public synchronized boolean reserve(long bytes, BatchJob job) throws InterruptedException {
+        Object turn = new Object();
+        waiting.add(turn);
+        try {
+            while (!job.isCancelled() && (waiting.peek() != turn
+                    || (reservedTasks > 0 && inFlightBytes + bytes > capacityBytes))) {
+                wait();
+            }
+            if (job.isCancelled()) {
+                return false;
+            }
+            reservedTasks++;
+            inFlightBytes += bytes;
+            return true;
+        } finally {
+            waiting.remove(turn);
+            notifyAll();
+        }
+    }
+
+    /**
+     * Звільняє місце задачі в черзі та зарезервовану нею пам'ять (0, якщо задача
+     * завершилася до резервування)
+     */
+    public synchronized void release(long bytes) {
+        pendingTasks--;
+        if (bytes > 0) {
+            reservedTasks--;
+            inFlightBytes -= bytes;
+        }
+        notifyAll();
+    }
+
+    /**
+     * Будить потік, що чекає в acquire, щоб він перевірив стан обробки
+     */
+    public synchronized void wakeUp() {
+        notifyAll();
+    }
+
+    public synchronized void setCapacity(long capacityBytes) {
+        this.capacityBytes = capacityBytes;
+        notifyAll();
+    }
+
+    /**
+     * Змінює допустиму кількість задач у черзі пулу (наприклад, слідом за розміром пулу)
+     */
+    public synchronized void setMaxPendingTasks(int maxPendingTasks) {
+        this.maxPendingTasks = maxPendingTasks;
+        notifyAll();
+    }
+
+    public synchronized long getCapacity() {
+        return capacityBytes;
+    }
+
+    public synchronized long getInFlightBytes() {
+        return inFlightBytes;
+    }
+
+    /**
+     * Оцінює пікову пам'ять задачі за заголовком файлу без декодування пікселів:
+     * вміст файлу в пам'яті, декодований растр (з урахуванням subsampling) або
+     * його смуга, робоча копія та всі варіанти
+     */
+    public static long estimateBytes(ImageTask task) {
+        File file = task.getSourceFile();
+        ImageHeader header = ImageHeader.read(file);
+        if (header == null) {
+            return Math.max(file.length(), UNKNOWN_IMAGE_BYTES);
+        }
+
+        // Ціль задана в орієнтації відображення, декодується збережений растр
+        Orientation orientation = header.getOrientation();
+        int step = ImageDecoder.subsamplingStep(header.getWidth(), header.getHeight(),
+                orientation.transformedWidth(task.getMaxTargetWidth(), task.getMaxTargetHeight()),
+                orientation.transformedHeight(task.getMaxTargetWidth(), task.getMaxTargetHeight()));
+        int decodedWidth = (header.getWidth() + step - 1) / step;
+        int decodedHeight = (header.getHeight() + step - 1) / step;
+        // Великий растр декодується смугами: у пам'яті одна смуга та її копія
+        long decodedRows = ImageDecoder.needsBands(decodedWidth, decodedHeight)
+                ? ImageDecoder.bandRows(decodedWidth, decodedHeight) : decodedHeight;
+        long bytes = file.length() + decodedWidth * decodedRows * 4 * 2;
+
+        for (OutputSpec spec : task.getOutputSpecs()) {
+            bytes += (long) spec.getWidth() * spec.getHeight() * 4;
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,115 @@
+package imagecreator;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Масштабування згорткою для джерела, що надходить горизонтальними смугами.
+ * Рядки смуги одразу проходять горизонтальний прохід і накопичуються у вікні,
+ * а кожен рядок цілі обчислюється, щойно надійшли всі рядки джерела, що в нього
+ * входять; непотрібні вже рядки вікна відкидаються. Тож у пам'яті тримаються ціль
+ * і кілька рядків, а не все джерело. Результат побітово збігається з
+ * ConvolutionResampler для того самого джерела цілком.
+ */
+public class BandScaler {
+    private final ConvolutionResampler.Contributions horizontal;
+    private final ConvolutionResampler.Contributions vertical;
+    private final int srcX;
+    private final int srcY;
+    private final int srcHeight;
+    private final int gridWidth;
+    private final int gridHeight;
+    private final int[] dst;
+    private final int dstOrigin;
+    private final int dstStepX;
+    private final int dstStepY;
+
+    /** Проміжні рядки [windowFirst, windowFirst + windowRows) після горизонтального проходу */
+    private final int[] window;
+    private int windowFirst;
+    private int windowRows;
+    private int received;
+    private int nextRow;
+
+    /**
+     * @param srcX      перший стовпець області джерела в координатах смуг
+     * @param srcY      перший рядок області джерела
+     * @param srcWidth  ширина області джерела
+     * @param srcHeight висота області джерела
+     * @param target    ціль TYPE_INT_RGB у орієнтації відображення (може бути підзображенням)
+     * @param bandRows  найбільша висота смуги, що передається в accept
+     */
+    public BandScaler(ConvolutionResampler.Kernel kernel, int srcX, int srcY, int srcWidth, int srcHeight,
+                      BufferedImage target, Orientation orientation, int bandRows) {
+        this.srcX = srcX;
+        this.srcY = srcY;
+        this.srcHeight = srcHeight;
+        this.gridWidth = orientation.transformedWidth(target.getWidth(), target.getHeight());
+        this.gridHeight = orientation.transformedHeight(target.getWidth(), target.getHeight());
+        this.horizontal = new ConvolutionResampler.Contributions(kernel, srcWidth, gridWidth);
+        this.vertical = new ConvolutionResampler.Contributions(kernel, srcHeight, gridHeight);
+
+        int dstStride = Resampler.stride(target);
+        this.dst = Resampler.pixels(target);
+        this.dstOrigin = orientation.origin(gridWidth, gridHeight, Resampler.offset(target), dstStride);
+        this.dstStepX = orientation.stepX(dstStride);
+        this.dstStepY = orientation.stepY(dstStride);
+        // Рядок цілі, який ще не можна обчислити, тримає у вікні менше maxTaps рядків
+        this.window = RasterPool.acquireInts((vertical.maxTaps + bandRows) * gridWidth);
+    }
+
+    /**
+     * Приймає смугу: рядки [firstRow, firstRow + rows) джерела, що лежать у
+     * band (TYPE_INT_RGB) починаючи з його верхнього рядка. Смуги надходять
+     * згори донизу без пропусків.
+     */
+    public void accept(BufferedImage band, int firstRow, int rows) {
+        int from = Math.max(firstRow, srcY) - srcY;
+        int to = Math.min(firstRow + rows, srcY + srcHeight) - srcY;
+        if (from >= to || nextRow >= gridHeight) {
+            return;
+        }
+
+        // Рядки, потрібні лише вже обчисленим рядкам цілі, більше не знадобляться
+        int keepFrom = Math.min(vertical.start[nextRow], received);
+        int drop = keepFrom - windowFirst;
+        if (drop > 0) {
+            System.arraycopy(window, drop * gridWidth, window, 0, (windowRows - drop) * gridWidth);
+            windowFirst = keepFrom;
+            windowRows -= drop;
+        }
+
+        // Рядок смуги y потрапляє в рядок вікна windowRows + (y - from)
+        int stride = Resampler.stride(band);
+        int bandOffset = Resampler.offset(band) + (from + srcY - firstRow) * stride + srcX - windowRows * stride;
+        int[] bandPixels = Resampler.pixels(band);
+        ParallelRows.forEach(windowRows, windowRows + (to - from), (long) gridWidth * horizontal.maxTaps,
+                (rowFrom, rowTo) -> ConvolutionResampler.horizontalPass(horizontal, bandPixels,
+                        bandOffset, stride, window, gridWidth, rowFrom, rowTo));
+        windowRows += to - from;
+        received = to;
+
+        int rowTo = nextRow;
+        while (rowTo < gridHeight && vertical.start[rowTo] + vertical.count[rowTo] <= received) {
+            rowTo++;
+        }
+        int first = windowFirst;
+        ParallelRows.forEach(nextRow, rowTo, (long) gridWidth * vertical.maxTaps, (rowFrom, rowEnd) ->
+                ConvolutionResampler.verticalPass(vertical, window, gridWidth, first, dst,
+                        dstOrigin, dstStepX, dstStepY, rowFrom, rowEnd));
+        nextRow = rowTo;
+    }
+
+    /**
+     * Чи обчислено всі рядки цілі
+     */
+    public boolean isComplete() {
+        return nextRow >= gridHeight;
+    }
+
+    /**
+     * Повертає вікно в пул; після виклику смуги не приймаються
+     */
+    public void release() {
+        RasterPool.releaseInts(window);
+    }
+}
@@ -0,0 +1,89 @@
+package imagecreator;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Керування пакетною обробкою ззовні (GUI, обробник сигналу завершення):
+ * пауза, продовження та скасування. Пауза зупиняє передачу нових задач і
+ * затримує задачі, що виконуються, на межі етапів; скасування припиняє передачу,
+ * а задачі, які ще не записали результат, завершуються без запису.
+ * Результати, вже передані на фіксацію, не втрачаються.
+ */
+public class BatchJob {
+    public enum State {
+        RUNNING, PAUSED, CANCELLED
+    }
+
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+    private State state = State.RUNNING;
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized boolean isCancelled() {
+        return state == State.CANCELLED;
+    }
+
+    public void pause() {
+        changeState(State.RUNNING, State.PAUSED);
+    }
+
+    public void resume() {
+        changeState(State.PAUSED, State.RUNNING);
+    }
+
+    /**
+     * Скасовує обробку; повторний виклик нічого не змінює
+     */
+    public void cancel() {
+        synchronized (this) {
+            if (state == State.CANCELLED) {
+                return;
+            }
+            state = State.CANCELLED;
+            notifyAll();
+        }
+        Log.info("Job cancelled");
+        fireStateChanged();
+    }
+
+    private void changeState(State from, State to) {
+        synchronized (this) {
+            if (state != from) {
+                return;
+            }
+            state = to;
+            notifyAll();
+        }
+        Log.info(to == State.PAUSED ? "Job paused" : "Job resumed");
+        fireStateChanged();
+    }
+
+    /**
+     * Блокує виклик, поки обробку призупинено
+     *
+     * @return false, якщо обробку скасовано
+     */
+    public synchronized boolean awaitRunning() throws InterruptedException {
+        while (state == State.PAUSED) {
+            wait();
+        }
+        return state == State.RUNNING;
+    }
+
+    /**
+     * Слухач викликається після кожної зміни стану (наприклад, щоб розбудити
+     * потік, який чекає на місце в бюджеті пам'яті)
+     */
+    public void addStateListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    private void fireStateChanged() {
+        for (Runnable listener : listeners) {
+            listener.run();
+        }
+    }
+}
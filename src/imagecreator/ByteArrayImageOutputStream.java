@@ -0,0 +1,94 @@
+package imagecreator;
+
+import javax.imageio.stream.ImageOutputStreamImpl;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * ImageOutputStream у масив, що росте. Підтримує повернення назад для дозапису
+ * (кодувальник PNG так заповнює довжини блоків) і віддає результат як ByteBuffer
+ * без копіювання — на відміну від MemoryCacheImageOutputStream + ByteArrayOutputStream,
+ * де закодовані байти копіюються двічі.
+ */
+public final class ByteArrayImageOutputStream extends ImageOutputStreamImpl {
+    private byte[] buffer;
+    private int length;
+
+    /**
+     * @param initialCapacity очікуваний розмір результату
+     */
+    public ByteArrayImageOutputStream(int initialCapacity) {
+        this.buffer = new byte[Math.max(256, initialCapacity)];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        checkClosed();
+        flushBits();
+        ensureCapacity(streamPos + 1);
+        buffer[(int) streamPos++] = (byte) b;
+        length = Math.max(length, (int) streamPos);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        checkClosed();
+        Objects.checkFromIndexSize(off, len, b.length);
+        flushBits();
+        ensureCapacity(streamPos + len);
+        System.arraycopy(b, off, buffer, (int) streamPos, len);
+        streamPos += len;
+        length = Math.max(length, (int) streamPos);
+    }
+
+    @Override
+    public int read() throws IOException {
+        checkClosed();
+        bitOffset = 0;
+        if (streamPos >= length) {
+            return -1;
+        }
+        return buffer[(int) streamPos++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        checkClosed();
+        Objects.checkFromIndexSize(off, len, b.length);
+        bitOffset = 0;
+        if (len == 0) {
+            return 0;
+        }
+        int remaining = length - (int) streamPos;
+        if (remaining <= 0) {
+            return -1;
+        }
+        int count = Math.min(len, remaining);
+        System.arraycopy(buffer, (int) streamPos, b, off, count);
+        streamPos += count;
+        return count;
+    }
+
+    @Override
+    public long length() {
+        return length;
+    }
+
+    /**
+     * Записані байти; буфер залишається дійсним і після закриття потоку
+     */
+    public ByteBuffer toByteBuffer() {
+        return ByteBuffer.wrap(buffer, 0, length).asReadOnlyBuffer();
+    }
+
+    private void ensureCapacity(long required) throws IOException {
+        if (required > Integer.MAX_VALUE - 8) {
+            throw new IOException("Encoded image is too large");
+        }
+        if (required > buffer.length) {
+            buffer = Arrays.copyOf(buffer, (int) Math.max(required, buffer.length * 2L));
+        }
+    }
+}
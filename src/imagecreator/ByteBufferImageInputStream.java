@@ -0,0 +1,55 @@
+package imagecreator;
+
+import javax.imageio.stream.ImageInputStreamImpl;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * ImageInputStream поверх вмісту файлу в ByteBuffer (direct-буфер з пулу
+ * або масив у heap). На відміну від MemoryCacheImageInputStream
+ * дані не копіюються у проміжний кеш: декодер читає їх прямо з буфера.
+ */
+public final class ByteBufferImageInputStream extends ImageInputStreamImpl {
+    private final ByteBuffer buffer;
+
+    /**
+     * @param data вміст від поточної позиції до limit; позиція самого буфера не змінюється
+     */
+    public ByteBufferImageInputStream(ByteBuffer data) {
+        this.buffer = data.slice();
+    }
+
+    @Override
+    public int read() throws IOException {
+        checkClosed();
+        bitOffset = 0;
+        if (streamPos >= buffer.limit()) {
+            return -1;
+        }
+        return buffer.get((int) streamPos++) & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        checkClosed();
+        Objects.checkFromIndexSize(off, len, b.length);
+        bitOffset = 0;
+        if (len == 0) {
+            return 0;
+        }
+        long remaining = buffer.limit() - streamPos;
+        if (remaining <= 0) {
+            return -1;
+        }
+        int count = (int) Math.min(len, remaining);
+        buffer.get((int) streamPos, b, off, count);
+        streamPos += count;
+        return count;
+    }
+
+    @Override
+    public long length() {
+        return buffer.limit();
+    }
+}
@@ -0,0 +1,25 @@
+package imagecreator;
+
+import java.io.PrintStream;
+import java.util.List;
+
+/**
+ * Виведення журналу в консоль у звичному форматі: INFO і DEBUG у stdout,
+ * попередження та помилки з префіксом у stderr
+ */
+public class ConsoleLogSink implements LogSink {
+    @Override
+    public void write(List<Log.Record> batch) {
+        PrintStream out = System.out;
+        PrintStream err = System.err;
+        for (Log.Record record : batch) {
+            switch (record.getLevel()) {
+                case WARN -> err.println("WARNING: " + record.getMessage());
+                case ERROR -> err.println("ERROR: " + record.getMessage());
+                default -> out.println(record.getMessage());
+            }
+        }
+        out.flush();
+        err.flush();
+    }
+}
@@ -0,0 +1,80 @@
+package imagecreator;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Пул direct-буферів для вмісту файлів джерел. Буфер видається етапом читання і
+ * повертається, коли декодування більше не потребує вмісту, тож наступне джерело
+ * читається в уже виділену пам'ять поза heap.
+ * Читання виконується на віртуальних потоках, які не мають сталих потоків-власників,
+ * тому пул спільний для всіх потоків. Місткість буферів округлюється вгору до
+ * степеня двійки; буфери понад MAX_BUFFER_BYTES не видаються, а обсяг вільних
+ * буферів обмежений MAX_RETAINED_BYTES (найдавніше використані розміри витісняються).
+ */
+final class ContentPool {
+    /** Найбільший буфер пулу; більші файли читаються в масив у heap */
+    static final int MAX_BUFFER_BYTES = 16 * 1024 * 1024;
+    static final long MAX_RETAINED_BYTES =
+            Math.min(64L * 1024 * 1024, Runtime.getRuntime().maxMemory() / 32);
+    private static final int MIN_BUFFER_BYTES = 64 * 1024;
+
+    // Порядок доступу: перша місткість — найдавніше використана
+    private static final Map<Integer, ArrayDeque<ByteBuffer>> free = new LinkedHashMap<>(16, 0.75f, true);
+    private static long retainedBytes;
+
+    private ContentPool() {
+    }
+
+    /**
+     * Буфер з позицією 0 і limit size: з пулу чи новий direct-буфер, якщо size
+     * не перевищує MAX_BUFFER_BYTES, інакше масив у heap
+     */
+    static ByteBuffer acquire(int size) {
+        if (size > MAX_BUFFER_BYTES) {
+            return ByteBuffer.allocate(size);
+        }
+        int capacity = Math.max(MIN_BUFFER_BYTES, Integer.highestOneBit(Math.max(1, size - 1)) << 1);
+        ByteBuffer buffer = take(capacity);
+        if (buffer == null) {
+            buffer = ByteBuffer.allocateDirect(capacity);
+        }
+        return buffer.clear().limit(size);
+    }
+
+    /**
+     * Повертає буфер, виданий acquire. Після виклику ні буфер, ні його зрізи
+     * використовувати не можна.
+     */
+    static synchronized void release(ByteBuffer buffer) {
+        if (buffer == null || !buffer.isDirect() || buffer.capacity() > MAX_RETAINED_BYTES) {
+            return;
+        }
+        free.computeIfAbsent(buffer.capacity(), k -> new ArrayDeque<>()).push(buffer);
+        retainedBytes += buffer.capacity();
+
+        Iterator<ArrayDeque<ByteBuffer>> lists = free.values().iterator();
+        while (retainedBytes > MAX_RETAINED_BYTES && lists.hasNext()) {
+            ArrayDeque<ByteBuffer> buffers = lists.next();
+            while (retainedBytes > MAX_RETAINED_BYTES && !buffers.isEmpty()) {
+                retainedBytes -= buffers.removeLast().capacity();
+            }
+            if (buffers.isEmpty()) {
+                lists.remove();
+            }
+        }
+    }
+
+    private static synchronized ByteBuffer take(int capacity) {
+        ArrayDeque<ByteBuffer> buffers = free.get(capacity);
+        if (buffers == null || buffers.isEmpty()) {
+            return null;
+        }
+        ByteBuffer buffer = buffers.pop();
+        retainedBytes -= buffer.capacity();
+        return buffer;
+    }
+}
@@ -0,0 +1,258 @@
+package imagecreator;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Сепарабельне масштабування згорткою: горизонтальний прохід, потім вертикальний.
+ * Обидва проходи працюють напряму з int[] растром TYPE_INT_RGB і не створюють
+ * об'єктів у внутрішніх циклах.
+ */
+public class ConvolutionResampler implements Resampler {
+    /** Точність фіксованої коми для ваг фільтра */
+    private static final int PRECISION_BITS = 14;
+    private static final int ROUNDING = 1 << (PRECISION_BITS - 1);
+
+    /**
+     * Ядра фільтрів масштабування
+     */
+    public enum Kernel {
+        /** Усереднення за площею */
+        BOX(0.5) {
+            @Override
+            double weight(double x) {
+                return x >= -0.5 && x < 0.5 ? 1.0 : 0.0;
+            }
+        },
+        /** Білінійне (трикутне) ядро */
+        TRIANGLE(1.0) {
+            @Override
+            double weight(double x) {
+                x = Math.abs(x);
+                return x < 1.0 ? 1.0 - x : 0.0;
+            }
+        },
+        /** Кубічний фільтр Мітчелла-Нетравалі (B = C = 1/3) */
+        MITCHELL(2.0) {
+            @Override
+            double weight(double x) {
+                return cubic(x, 1.0 / 3.0, 1.0 / 3.0);
+            }
+        },
+        /** Кубічний сплайн Кетмулла-Рома (B = 0, C = 1/2) — ядро бікубічної інтерполяції */
+        CATMULL_ROM(2.0) {
+            @Override
+            double weight(double x) {
+                return cubic(x, 0.0, 0.5);
+            }
+        },
+        /** Віконна функція sinc з трьома пелюстками */
+        LANCZOS3(3.0) {
+            @Override
+            double weight(double x) {
+                if (x == 0.0) return 1.0;
+                if (x <= -3.0 || x >= 3.0) return 0.0;
+                double px = Math.PI * x;
+                return 3.0 * Math.sin(px) * Math.sin(px / 3.0) / (px * px);
+            }
+        };
+
+        private final double support;
+
+        Kernel(double support) {
+            this.support = support;
+        }
+
+        abstract double weight(double x);
+
+        /**
+         * Сімейство кубічних фільтрів Мітчелла-Нетравалі з параметрами b і c
+         */
+        private static double cubic(double x, double b, double c) {
+            x = Math.abs(x);
+            if (x < 1.0) {
+                return ((12 - 9 * b - 6 * c) * x * x * x
+                        + (-18 + 12 * b + 6 * c) * x * x
+                        + (6 - 2 * b)) / 6.0;
+            }
+            if (x < 2.0) {
+                return ((-b - 6 * c) * x * x * x
+                        + (6 * b + 30 * c) * x * x
+                        + (-12 * b - 48 * c) * x
+                        + (8 * b + 24 * c)) / 6.0;
+            }
+            return 0.0;
+        }
+    }
+
+    private final Kernel kernel;
+
+    public ConvolutionResampler(Kernel kernel) {
+        this.kernel = kernel;
+    }
+
+    @Override
+    public void resample(BufferedImage source, BufferedImage target, Orientation orientation) {
+        BufferedImage src = Resampler.toIntRgb(source);
+        try {
+            resample(Resampler.pixels(src), Resampler.offset(src), Resampler.stride(src),
+                    src.getWidth(), src.getHeight(),
+                    Resampler.pixels(target), Resampler.offset(target), Resampler.stride(target),
+                    target.getWidth(), target.getHeight(), orientation);
+        } finally {
+            Resampler.releaseCopy(src, source);
+        }
+    }
+
+    /**
+     * Масштабує прямокутник пікселів src у прямокутник dst
+     */
+    public void resample(int[] src, int srcOffset, int srcStride, int srcWidth, int srcHeight,
+                         int[] dst, int dstOffset, int dstStride, int dstWidth, int dstHeight) {
+        resample(src, srcOffset, srcStride, srcWidth, srcHeight,
+                dst, dstOffset, dstStride, dstWidth, dstHeight, Orientation.NORMAL);
+    }
+
+    /**
+     * Те саме з поворотом: dstWidth x dstHeight — розмір цілі в орієнтації відображення,
+     * масштабування йде до сітки у збереженій орієнтації, а вертикальний прохід
+     * записує кожен піксель одразу на його місце після повороту
+     */
+    public void resample(int[] src, int srcOffset, int srcStride, int srcWidth, int srcHeight,
+                         int[] dst, int dstOffset, int dstStride, int dstWidth, int dstHeight,
+                         Orientation orientation) {
+        int gridWidth = orientation.transformedWidth(dstWidth, dstHeight);
+        int gridHeight = orientation.transformedHeight(dstWidth, dstHeight);
+        Contributions horizontal = new Contributions(kernel, srcWidth, gridWidth);
+        Contributions vertical = new Contributions(kernel, srcHeight, gridHeight);
+
+        // Проміжний буфер: нова ширина, висота джерела
+        int[] tmp = RasterPool.acquireInts(gridWidth * srcHeight);
+        try {
+            // Рядки кожного проходу незалежні, тож великі зображення діляться на діапазони рядків
+            ParallelRows.forEach(0, srcHeight, (long) gridWidth * horizontal.maxTaps, (from, to) ->
+                    horizontalPass(horizontal, src, srcOffset, srcStride, tmp, gridWidth, from, to));
+            int dstOrigin = orientation.origin(gridWidth, gridHeight, dstOffset, dstStride);
+            int dstStepX = orientation.stepX(dstStride);
+            int dstStepY = orientation.stepY(dstStride);
+            ParallelRows.forEach(0, gridHeight, (long) gridWidth * vertical.maxTaps, (from, to) ->
+                    verticalPass(vertical, tmp, gridWidth, 0, dst, dstOrigin, dstStepX, dstStepY, from, to));
+        } finally {
+            RasterPool.releaseInts(tmp);
+        }
+    }
+
+    static void horizontalPass(Contributions c, int[] src, int srcOffset, int srcStride,
+                               int[] tmp, int tmpWidth, int rowFrom, int rowTo) {
+        for (int y = rowFrom; y < rowTo; y++) {
+            int srcRow = srcOffset + y * srcStride;
+            int tmpRow = y * tmpWidth;
+            for (int x = 0; x < tmpWidth; x++) {
+                int start = c.start[x];
+                int count = c.count[x];
+                int w = x * c.maxTaps;
+                int r = ROUNDING, g = ROUNDING, b = ROUNDING;
+                for (int k = 0; k < count; k++) {
+                    int p = src[srcRow + start + k];
+                    int weight = c.weights[w + k];
+                    r += ((p >> 16) & 0xFF) * weight;
+                    g += ((p >> 8) & 0xFF) * weight;
+                    b += (p & 0xFF) * weight;
+                }
+                tmp[tmpRow + x] = pack(r, g, b);
+            }
+        }
+    }
+
+    /**
+     * Рядок y сітки пише пікселі за індексами dstOrigin + y * dstStepY + x * dstStepX;
+     * без повороту це dstOffset + y * dstStride + x. tmp містить проміжні рядки,
+     * починаючи з tmpFirstRow (ненульовий, коли джерело надходить смугами).
+     */
+    static void verticalPass(Contributions c, int[] tmp, int tmpWidth, int tmpFirstRow, int[] dst,
+                             int dstOrigin, int dstStepX, int dstStepY, int rowFrom, int rowTo) {
+        for (int y = rowFrom; y < rowTo; y++) {
+            int start = c.start[y];
+            int count = c.count[y];
+            int w = y * c.maxTaps;
+            int dstRow = dstOrigin + y * dstStepY;
+            for (int x = 0; x < tmpWidth; x++) {
+                int r = ROUNDING, g = ROUNDING, b = ROUNDING;
+                int index = (start - tmpFirstRow) * tmpWidth + x;
+                for (int k = 0; k < count; k++, index += tmpWidth) {
+                    int p = tmp[index];
+                    int weight = c.weights[w + k];
+                    r += ((p >> 16) & 0xFF) * weight;
+                    g += ((p >> 8) & 0xFF) * weight;
+                    b += (p & 0xFF) * weight;
+                }
+                dst[dstRow + x * dstStepX] = pack(r, g, b);
+            }
+        }
+    }
+
+    private static int pack(int r, int g, int b) {
+        return (clamp(r >> PRECISION_BITS) << 16)
+                | (clamp(g >> PRECISION_BITS) << 8)
+                | clamp(b >> PRECISION_BITS);
+    }
+
+    private static int clamp(int value) {
+        return value < 0 ? 0 : Math.min(value, 255);
+    }
+
+    /**
+     * Попередньо обчислені ваги фільтра для кожного вихідного пікселя однієї осі
+     */
+    static final class Contributions {
+        final int[] start;
+        final int[] count;
+        final int[] weights;
+        final int maxTaps;
+
+        Contributions(Kernel kernel, int srcSize, int dstSize) {
+            double scale = (double) srcSize / dstSize;
+            // При зменшенні ядро розтягується, щоб охопити всі пікселі джерела
+            double filterScale = Math.max(scale, 1.0);
+            double support = kernel.support * filterScale;
+
+            this.maxTaps = (int) Math.ceil(support) * 2 + 1;
+            this.start = new int[dstSize];
+            this.count = new int[dstSize];
+            this.weights = new int[dstSize * maxTaps];
+
+            double[] raw = new double[maxTaps];
+            for (int i = 0; i < dstSize; i++) {
+                double center = (i + 0.5) * scale;
+                int from = Math.max(0, (int) (center - support + 0.5));
+                int to = Math.min(srcSize, (int) (center + support + 0.5));
+                if (to - from > maxTaps) {
+                    to = from + maxTaps;
+                }
+                if (to <= from) {
+                    // Вироджений випадок: беремо найближчий піксель
+                    from = Math.min(srcSize - 1, (int) center);
+                    to = from + 1;
+                }
+
+                double total = 0.0;
+                for (int j = from; j < to; j++) {
+                    double w = kernel.weight((j + 0.5 - center) / filterScale);
+                    raw[j - from] = w;
+                    total += w;
+                }
+                if (total == 0.0) {
+                    raw[0] = 1.0;
+                    total = 1.0;
+                    to = from + 1;
+                }
+
+                start[i] = from;
+                count[i] = to - from;
+                int offset = i * maxTaps;
+                for (int j = 0; j < to - from; j++) {
+                    weights[offset + j] = (int) Math.round(raw[j] / total * (1 << PRECISION_BITS));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package imagecreator;
+
+import java.util.Locale;
+
+/**
+ * Налаштування кодувальників для всієї задачі: якість і режим JPEG, субдискретизація
+ * кольоровості, рівень стиснення PNG та примусовий формат виводу.
+ * Якість, задана у самому варіанті (--size WxH:jpg:0.8), має пріоритет.
+ */
+public final class EncoderSettings {
+    /** Налаштування кодувальників ImageIO за замовчуванням, формат як у джерела */
+    public static final EncoderSettings DEFAULTS = new EncoderSettings(null, -1f, false, null, -1);
+
+    /**
+     * Субдискретизація кольоровості JPEG: коефіцієнти вибірки компоненти яскравості
+     */
+    public enum ChromaSubsampling {
+        S420("4:2:0", 2, 2),
+        S422("4:2:2", 2, 1),
+        S444("4:4:4", 1, 1);
+
+        private final String label;
+        private final int horizontal;
+        private final int vertical;
+
+        ChromaSubsampling(String label, int horizontal, int vertical) {
+            this.label = label;
+            this.horizontal = horizontal;
+            this.vertical = vertical;
+        }
+
+        public int getHorizontal() {
+            return horizontal;
+        }
+
+        public int getVertical() {
+            return vertical;
+        }
+
+        /**
+         * Розбирає "420", "4:2:0" тощо
+         */
+        public static ChromaSubsampling parse(String value) {
+            String digits = value.replace(":", "").trim();
+            for (ChromaSubsampling mode : values()) {
+                if (mode.name().substring(1).equals(digits)) {
+                    return mode;
+                }
+            }
+            throw new IllegalArgumentException("Unknown chroma subsampling: " + value);
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    private final String outputFormat;
+    private final float jpegQuality;
+    private final boolean progressive;
+    private final ChromaSubsampling chromaSubsampling;
+    private final int pngCompressionLevel;
+
+    /**
+     * @param outputFormat        формат усіх варіантів без явного формату або null — формат джерела
+     * @param jpegQuality         якість JPEG 0..1 або -1 для значення кодувальника
+     * @param progressive         прогресивний JPEG замість baseline
+     * @param chromaSubsampling   субдискретизація JPEG або null для значення кодувальника (4:2:0)
+     * @param pngCompressionLevel рівень deflate PNG 0..9 або -1 для значення кодувальника
+     */
+    public EncoderSettings(String outputFormat, float jpegQuality, boolean progressive,
+                           ChromaSubsampling chromaSubsampling, int pngCompressionLevel) {
+        if (jpegQuality > 1.0f) {
+            throw new IllegalArgumentException("Quality must be in range 0..1: " + jpegQuality);
+        }
+        if (pngCompressionLevel > 9) {
+            throw new IllegalArgumentException("PNG compression level must be in range 0..9: "
+                    + pngCompressionLevel);
+        }
+        this.outputFormat = outputFormat == null || outputFormat.isEmpty()
+                ? null : outputFormat.toLowerCase(Locale.ROOT);
+        this.jpegQuality = jpegQuality;
+        this.progressive = progressive;
+        this.chromaSubsampling = chromaSubsampling;
+        this.pngCompressionLevel = pngCompressionLevel;
+    }
+
+    public EncoderSettings withOutputFormat(String outputFormat) {
+        return new EncoderSettings(outputFormat, jpegQuality, progressive, chromaSubsampling, pngCompressionLevel);
+    }
+
+    public EncoderSettings withJpegQuality(float jpegQuality) {
+        return new EncoderSettings(outputFormat, jpegQuality, progressive, chromaSubsampling, pngCompressionLevel);
+    }
+
+    public EncoderSettings withProgressive(boolean progressive) {
+        return new EncoderSettings(outputFormat, jpegQuality, progressive, chromaSubsampling, pngCompressionLevel);
+    }
+
+    public EncoderSettings withChromaSubsampling(ChromaSubsampling chromaSubsampling) {
+        return new EncoderSettings(outputFormat, jpegQuality, progressive, chromaSubsampling, pngCompressionLevel);
+    }
+
+    public EncoderSettings withPngCompressionLevel(int pngCompressionLevel) {
+        return new EncoderSettings(outputFormat, jpegQuality, progressive, chromaSubsampling, pngCompressionLevel);
+    }
+
+    public String getOutputFormat() {
+        return outputFormat;
+    }
+
+    public float getJpegQuality() {
+        return jpegQuality;
+    }
+
+    public boolean isProgressive() {
+        return progressive;
+    }
+
+    public ChromaSubsampling getChromaSubsampling() {
+        return chromaSubsampling;
+    }
+
+    public int getPngCompressionLevel() {
+        return pngCompressionLevel;
+    }
+
+    /**
+     * Формат виводу для варіанта без явного формату: примусовий або формат джерела
+     */
+    public String resolveFormat(String sourceFormat) {
+        return outputFormat != null ? outputFormat : sourceFormat;
+    }
+
+    /**
+     * Якість стиснення ImageWriteParam для формату: для PNG рівень deflate L
+     * відповідає якості (9 - L) / 9, як її перераховує кодувальник JDK
+     */
+    public float compressionQuality(String format) {
+        if (isJpeg(format)) {
+            return jpegQuality;
+        }
+        if (format.equalsIgnoreCase("png") && pngCompressionLevel >= 0) {
+            return (9 - pngCompressionLevel) / 9f;
+        }
+        return -1f;
+    }
+
+    static boolean isJpeg(String format) {
+        return format.equalsIgnoreCase("jpg") || format.equalsIgnoreCase("jpeg");
+    }
+
+    public boolean isDefault() {
+        return toString().equals(DEFAULTS.toString());
+    }
+
+    @Override
+    public String toString() {
+        return (outputFormat == null ? "" : outputFormat) + ":"
+                + (jpegQuality < 0 ? "" : String.valueOf(jpegQuality)) + ":"
+                + (progressive ? "progressive" : "baseline") + ":"
+                + (chromaSubsampling == null ? "" : chromaSubsampling.name()) + ":"
+                + (pngCompressionLevel < 0 ? "" : String.valueOf(pngCompressionLevel));
+    }
+}
@@ -0,0 +1,71 @@
+package imagecreator;
+
+import java.awt.Rectangle;
+
+/**
+ * Режими вписування джерела у цільовий розмір WxH
+ */
+public enum FitMode {
+    /** Розтягування точно до WxH без збереження пропорцій */
+    STRETCH,
+    /** Вписування зі збереженням пропорцій; результат може бути меншим за WxH */
+    FIT,
+    /** Заповнення WxH зі збереженням пропорцій та обрізанням по центру */
+    FILL,
+    /** Як FILL, але обрізання зміщується до найдеталізованішої частини кадру */
+    SMART,
+    /** Вписування зі збереженням пропорцій у полотно WxH з полями */
+    PAD;
+
+    /** Колір полів режиму PAD */
+    static final int PAD_COLOR = 0xFFFFFF;
+
+    /**
+     * Розбирає назву режиму без урахування регістру ("fill", "smart")
+     */
+    public static FitMode parse(String value) {
+        return valueOf(value.trim().toUpperCase());
+    }
+
+    /**
+     * Розташування варіанта targetWidth x targetHeight для джерела sourceWidth x sourceHeight
+     *
+     * @param smartCrop аналіз деталізації для режиму SMART, для інших режимів ігнорується
+     */
+    public VariantLayout layout(int sourceWidth, int sourceHeight, int targetWidth, int targetHeight,
+                                SmartCrop smartCrop) {
+        Rectangle full = new Rectangle(0, 0, sourceWidth, sourceHeight);
+        switch (this) {
+            case FIT:
+            case PAD: {
+                double scale = Math.min((double) targetWidth / sourceWidth,
+                        (double) targetHeight / sourceHeight);
+                int width = Math.max(1, Math.min(targetWidth, (int) Math.round(sourceWidth * scale)));
+                int height = Math.max(1, Math.min(targetHeight, (int) Math.round(sourceHeight * scale)));
+                if (this == FIT) {
+                    return new VariantLayout(full, width, height, width, height, 0, 0);
+                }
+                return new VariantLayout(full, width, height, targetWidth, targetHeight,
+                        (targetWidth - width) / 2, (targetHeight - height) / 2);
+            }
+            case FILL:
+            case SMART: {
+                int cropWidth = sourceWidth;
+                int cropHeight = sourceHeight;
+                // Порівняння пропорцій у цілих числах: source ширше за ціль?
+                if ((long) sourceWidth * targetHeight > (long) sourceHeight * targetWidth) {
+                    cropWidth = (int) Math.max(1, Math.round((double) sourceHeight * targetWidth / targetHeight));
+                } else {
+                    cropHeight = (int) Math.max(1, Math.round((double) sourceWidth * targetHeight / targetWidth));
+                }
+                Rectangle crop = this == SMART && smartCrop != null
+                        ? smartCrop.bestCrop(cropWidth, cropHeight)
+                        : new Rectangle((sourceWidth - cropWidth) / 2, (sourceHeight - cropHeight) / 2,
+                        cropWidth, cropHeight);
+                return new VariantLayout(crop, targetWidth, targetHeight, targetWidth, targetHeight, 0, 0);
+            }
+            default:
+                return new VariantLayout(full, targetWidth, targetHeight, targetWidth, targetHeight, 0, 0);
+        }
+    }
+}
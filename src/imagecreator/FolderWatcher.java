@@ -0,0 +1,283 @@
+package imagecreator;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Нескінченний потік файлів зображень, що з'являються у вхідних директоріях
+ * (режим спостереження). Зміни відстежуються через WatchService, без
+ * періодичного обходу. Файл, який ще записується, не віддається: він має
+ * "відстоятися" — розмір не змінюється між перевірками, а з останнього запису
+ * минуло не менше settleMillis. Якщо задано суфікс маркера, файл натомість
+ * чекає на появу поруч файлу &lt;ім'я&gt;&lt;суфікс&gt; (наприклад, photo.jpg.done),
+ * який постачальник створює після запису.
+ * <p>
+ * Файли, що вже лежать у директоріях на момент запуску, також віддаються.
+ * hasNext() блокується, доки не з'явиться готовий файл, і повертає false
+ * лише після close().
+ */
+public class FolderWatcher implements Iterator<File>, AutoCloseable {
+    public static final long DEFAULT_SETTLE_MILLIS = 1000;
+    /** Найменший інтервал перевірки файлів, що ще не відстоялися */
+    private static final long MIN_CHECK_INTERVAL_MS = 50;
+    /**
+     * Скільки останніх відданих файлів пам'ятається для відсіювання повторних подій.
+     * Події для незміненого файлу надходять одразу після запису, тож старіші
+     * записи не потрібні, а у вхідній директорії, де файли лишаються назавжди,
+     * набір інакше ріс би без меж.
+     */
+    private static final int MAX_EMITTED = 10_000;
+
+    private final WatchService watchService;
+    private final Map<WatchKey, Path> keys = new HashMap<>();
+    private final List<Path> excluded;
+    private final ImageFileWalker.Detection detection;
+    private final long settleMillis;
+    private final String markerSuffix;
+
+    /** Файли, що ще записуються: шлях -> розмір при останній перевірці */
+    private final Map<Path, Long> pending = new LinkedHashMap<>();
+    /** Останні віддані файли (від найдавнішого): шлях -> розмір і час модифікації на той момент */
+    private final Map<Path, Stamp> emitted = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Path, Stamp> eldest) {
+            return size() > MAX_EMITTED;
+        }
+    };
+    private final Deque<File> ready = new ArrayDeque<>();
+    private volatile boolean closed;
+
+    private record Stamp(long size, long modified) {
+    }
+
+    /**
+     * @param directories  директорії для спостереження (разом з піддиректоріями)
+     * @param excluded     директорії, зміни в яких ігноруються (вихідна директорія, кеш)
+     * @param settleMillis скільки файл має не змінюватися, щоб вважатися записаним
+     * @param markerSuffix суфікс файлу-маркера завершення або null
+     */
+    public FolderWatcher(List<File> directories, List<File> excluded, ImageFileWalker.Detection detection,
+                         long settleMillis, String markerSuffix) throws IOException {
+        this.detection = detection;
+        this.settleMillis = settleMillis;
+        this.markerSuffix = markerSuffix;
+        this.excluded = ImageFileWalker.normalize(excluded);
+
+        watchService = FileSystems.getDefault().newWatchService();
+        try {
+            for (File directory : directories) {
+                Path path = directory.toPath().toAbsolutePath().normalize();
+                if (!Files.isDirectory(path)) {
+                    throw new NoSuchFileException(path.toString(), null, "Not a directory");
+                }
+                if (ImageFileWalker.isInside(path, this.excluded)) {
+                    throw new IOException("Input directory is inside the output or cache directory: " + path);
+                }
+                // Спостереження реєструється до обходу, тож файл, створений під час
+                // обходу, не загубиться (повторна поява відсіюється в pending)
+                registerTree(path);
+            }
+        } catch (IOException e) {
+            watchService.close();
+            throw e;
+        }
+        Log.info("Watching " + keys.size() + " director" + (keys.size() == 1 ? "y" : "ies")
+                + " for new images" + (markerSuffix != null
+                ? " (waiting for " + markerSuffix + " markers)"
+                : " (settle time " + settleMillis + " ms)"));
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (ready.isEmpty() && !closed) {
+            try {
+                WatchKey key = pending.isEmpty()
+                        ? watchService.take()
+                        : watchService.poll(checkInterval(), TimeUnit.MILLISECONDS);
+                while (key != null) {
+                    processEvents(key);
+                    key = watchService.poll();
+                }
+            } catch (ClosedWatchServiceException e) {
+                break;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                close();
+                break;
+            }
+            checkPending();
+        }
+        return !ready.isEmpty();
+    }
+
+    @Override
+    public File next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return ready.poll();
+    }
+
+    /**
+     * Припиняє спостереження; hasNext(), що чекає в іншому потоці, повертає false
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            // Спостереження вже припинено
+        }
+    }
+
+    private long checkInterval() {
+        return Math.max(MIN_CHECK_INTERVAL_MS, settleMillis / 4);
+    }
+
+    /**
+     * Реєструє директорію з піддиректоріями й додає наявні в них файли до
+     * очікування. Повторна реєстрація директорії нічого не змінює.
+     */
+    private void registerTree(Path root) throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attributes) throws IOException {
+                if (ImageFileWalker.isInside(dir, excluded)) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                WatchKey key = dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+                keys.put(key, dir);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                if (attributes.isRegularFile()) {
+                    fileChanged(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                Log.warn("Cannot watch " + file + ": " + e.getMessage());
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private void processEvents(WatchKey key) {
+        Path dir = keys.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (dir == null) {
+                break;
+            }
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                // Частину подій втрачено: директорія переглядається заново
+                Log.debug("Watch events overflowed, rescanning " + dir);
+                rescan(dir);
+                continue;
+            }
+            Path path = dir.resolve((Path) event.context());
+            if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE) {
+                pending.remove(path);
+                emitted.remove(path);
+            } else if (Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE) {
+                    // Файли могли з'явитися в новій директорії ще до її реєстрації
+                    rescan(path);
+                }
+            } else {
+                fileChanged(path);
+            }
+        }
+        if (!key.reset()) {
+            // Директорію видалено
+            keys.remove(key);
+        }
+    }
+
+    private void rescan(Path dir) {
+        try {
+            registerTree(dir);
+        } catch (IOException e) {
+            Log.warn("Cannot watch directory " + dir + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Подія для файлу: зображення потрапляє в очікування, маркер — повертає
+     * в очікування файл, до якого він належить
+     */
+    private void fileChanged(Path path) {
+        String name = path.getFileName().toString();
+        if (markerSuffix != null && name.endsWith(markerSuffix) && name.length() > markerSuffix.length()) {
+            path = path.resolveSibling(name.substring(0, name.length() - markerSuffix.length()));
+            name = path.getFileName().toString();
+        }
+        if (name.startsWith(OutputCommitter.TEMP_PREFIX)) {
+            return;
+        }
+        // Сигнатуру можна перевірити лише в записаного файлу
+        if (detection == ImageFileWalker.Detection.EXTENSION && !ImageFileWalker.hasImageExtension(name)) {
+            return;
+        }
+        // Розмір -1 гарантує, що файл буде перевірено ще хоча б раз
+        pending.put(path, -1L);
+    }
+
+    /**
+     * Переносить у ready файли, що вже записані
+     */
+    private void checkPending() {
+        long now = System.currentTimeMillis();
+        Iterator<Map.Entry<Path, Long>> entries = pending.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<Path, Long> entry = entries.next();
+            Path path = entry.getKey();
+            BasicFileAttributes attributes;
+            try {
+                attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            } catch (IOException e) {
+                // Файл видалено або перейменовано до завершення запису
+                entries.remove();
+                continue;
+            }
+            if (!attributes.isRegularFile()) {
+                entries.remove();
+                continue;
+            }
+
+            long size = attributes.size();
+            long modified = attributes.lastModifiedTime().toMillis();
+            if (markerSuffix != null) {
+                if (!Files.exists(path.resolveSibling(path.getFileName() + markerSuffix))) {
+                    continue;
+                }
+            } else if (size != entry.getValue() || now - modified < settleMillis) {
+                entry.setValue(size);
+                continue;
+            }
+            entries.remove();
+
+            Stamp stamp = new Stamp(size, modified);
+            if (stamp.equals(emitted.get(path))) {
+                // Повторна подія для вже відданого незміненого файлу
+                continue;
+            }
+            if (detection == ImageFileWalker.Detection.MAGIC && !ImageFileWalker.hasImageSignature(path)) {
+                continue;
+            }
+            emitted.remove(path);
+            emitted.put(path, stamp);
+            Log.debug("Ready: " + path);
+            ready.add(path.toFile());
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package imagecreator;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriter;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Кеш ImageReader/ImageWriter кожного потоку обробки за форматом.
+ * Пошук сервіс-провайдерів і створення кодека (для JPEG — ще й нативного стану
+ * libjpeg) виконуються один раз на потік, далі екземпляр повертається через reset().
+ * Віртуальні потоки кеш не використовують: їх багато, і кожен живе одну задачу.
+ */
+public final class ImageCodecs {
+    private static final ThreadLocal<Map<String, ImageReader>> READERS = ThreadLocal.withInitial(HashMap::new);
+    private static final ThreadLocal<Map<String, ImageWriter>> WRITERS = ThreadLocal.withInitial(HashMap::new);
+
+    private static final LongAdder reused = new LongAdder();
+    private static final LongAdder created = new LongAdder();
+
+    private ImageCodecs() {
+    }
+
+    /**
+     * Декодер для формату з кешу потоку або новий
+     *
+     * @return декодер або null, якщо формат не підтримується
+     */
+    public static ImageReader acquireReader(String format) {
+        String key = format.toLowerCase(Locale.ROOT);
+        if (!Thread.currentThread().isVirtual()) {
+            // Екземпляр вилучається з кешу на час використання, тож вкладене
+            // декодування того ж формату (попередній перегляд SmartCrop) отримає інший
+            ImageReader reader = READERS.get().remove(key);
+            if (reader != null) {
+                reused.increment();
+                return reader;
+            }
+        }
+        Iterator<ImageReader> readers = ImageIO.getImageReadersByFormatName(key);
+        if (!readers.hasNext()) {
+            return null;
+        }
+        created.increment();
+        return readers.next();
+    }
+
+    /**
+     * Повертає декодер у кеш потоку. Після помилки декодування екземпляр
+     * знищується, щоб наступне зображення не успадкувало зламаний стан.
+     */
+    public static void releaseReader(String format, ImageReader reader, boolean reusable) {
+        if (reusable && !Thread.currentThread().isVirtual()) {
+            reader.reset();
+            if (READERS.get().putIfAbsent(format.toLowerCase(Locale.ROOT), reader) == null) {
+                return;
+            }
+        }
+        reader.dispose();
+    }
+
+    /**
+     * Кодувальник для формату з кешу потоку або новий
+     *
+     * @return кодувальник або null, якщо формат не підтримується
+     */
+    public static ImageWriter acquireWriter(String format) {
+        String key = format.toLowerCase(Locale.ROOT);
+        if (!Thread.currentThread().isVirtual()) {
+            ImageWriter writer = WRITERS.get().remove(key);
+            if (writer != null) {
+                reused.increment();
+                return writer;
+            }
+        }
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(key);
+        if (!writers.hasNext()) {
+            return null;
+        }
+        created.increment();
+        return writers.next();
+    }
+
+    public static void releaseWriter(String format, ImageWriter writer, boolean reusable) {
+        if (reusable && !Thread.currentThread().isVirtual()) {
+            writer.reset();
+            if (WRITERS.get().putIfAbsent(format.toLowerCase(Locale.ROOT), writer) == null) {
+                return;
+            }
+        }
+        writer.dispose();
+    }
+
+    /**
+     * Формат за сигнатурою в перших байтах (JPEG, PNG, GIF, BMP)
+     *
+     * @return назва формату ImageIO або null, якщо сигнатура невідома
+     */
+    public static String formatOf(byte[] header, int length) {
+        if (length < 2) {
+            return null;
+        }
+        int b0 = header[0] & 0xFF, b1 = header[1] & 0xFF;
+        if (b0 == 0xFF && b1 == 0xD8) return "jpeg";
+        if (b0 == 'B' && b1 == 'M') return "bmp";
+        if (length < 4) return null;
+        int b2 = header[2] & 0xFF, b3 = header[3] & 0xFF;
+        if (b0 == 0x89 && b1 == 'P' && b2 == 'N' && b3 == 'G') return "png";
+        if (b0 == 'G' && b1 == 'I' && b2 == 'F' && b3 == '8') return "gif";
+        return null;
+    }
+
+    /** Скільки разів кодек узято з кешу потоку */
+    public static long getReusedCount() {
+        return reused.sum();
+    }
+
+    /** Скільки кодеків створено (промахи кешу та віртуальні потоки) */
+    public static long getCreatedCount() {
+        return created.sum();
+    }
+}
@@ -0,0 +1,620 @@
+package imagecreator;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Головний клас для управління обробкою зображень
+ */
+public class ImageCreator {
+    /** Інтервал між кроками адаптивного підбору кількості потоків */
+    private static final long TUNING_INTERVAL_MS = 2000;
+    /** Як часто під час завершення нагадується про задачі, що ще виконуються */
+    private static final long SHUTDOWN_LOG_INTERVAL_SECONDS = 60;
+
+    private final ForkJoinPool resizeExecutor;
+    private final ExecutorService ioExecutor;
+    private final OutputCommitter committer;
+    private final PipelineMetrics metrics;
+    private final AtomicInteger sequenceCounter;
+    private final File outputDirectory;
+    private final AdmissionController admission;
+    /** Чи належать пули цій обробці (інакше їх надає JobService і shutdown їх не зупиняє) */
+    private final boolean ownsExecutors;
+    private final BatchJob job = new BatchJob();
+    private volatile ResampleMode resampleMode = ResampleMode.BICUBIC;
+    private volatile FitMode fitMode = FitMode.STRETCH;
+    private volatile EncoderSettings encoderSettings = EncoderSettings.DEFAULTS;
+    private volatile OutputManifest manifest;
+    private volatile JobCheckpoint checkpoint;
+    private volatile ThumbnailCache cache;
+    private volatile boolean stagedIo = true;
+    private ScheduledExecutorService tunerScheduler;
+    private ScheduledExecutorService manifestSaver;
+
+    public ImageCreator(int numResizeThreads, File outputDirectory) {
+        // ForkJoinPool: задачі цілих зображень і діапазони рядків великих зображень
+        // (ParallelRows) ділять одні потоки з крадіжкою роботи; розмір змінюється на ходу.
+        // Читання і запис файлів — на віртуальних потоках: очікування диска чи мережі
+        // не займає потоки пулу обробки. Пул не отримує більше задач, ніж вміщує бюджет пам'яті
+        this(outputDirectory, new ForkJoinPool(numResizeThreads), Executors.newVirtualThreadPerTaskExecutor(),
+                new AdmissionController(AdmissionController.defaultCapacity(), numResizeThreads * 4),
+                new PipelineMetrics(), true);
+    }
+
+    /**
+     * Обробка на спільних пулах і бюджеті пам'яті служби (JobService): кілька
+     * обробок з різними вихідними директоріями ділять один «прогрітий» конвеєр.
+     * shutdown чекає лише на власні задачі та не зупиняє пули.
+     *
+     * @param serviceMetrics метрики служби, в які додатково записуються події цієї обробки
+     */
+    public ImageCreator(File outputDirectory, ForkJoinPool resizeExecutor, ExecutorService ioExecutor,
+                        AdmissionController admission, PipelineMetrics serviceMetrics) {
+        this(outputDirectory, resizeExecutor, ioExecutor, admission, new PipelineMetrics(serviceMetrics), false);
+    }
+
+    private ImageCreator(File outputDirectory, ForkJoinPool resizeExecutor, ExecutorService ioExecutor,
+                         AdmissionController admission, PipelineMetrics metrics, boolean ownsExecutors) {
+        this.resizeExecutor = resizeExecutor;
+        this.ioExecutor = ioExecutor;
+        this.admission = admission;
+        this.ownsExecutors = ownsExecutors;
+        // Скасування будить цикл передачі задач, що чекає на місце в бюджеті
+        this.job.addStateListener(admission::wakeUp);
+        this.metrics = metrics;
+        this.metrics.setWorkerThreads(resizeExecutor.getParallelism());
+        this.sequenceCounter = new AtomicInteger(0);
+        this.outputDirectory = outputDirectory;
+        this.committer = new OutputCommitter(outputDirectory);
+        this.committer.recoverOrphans();
+    }
+
+    public void processImages(File[] imageFiles, int targetWidth, int targetHeight,
+                              String outputPrefix) {
+        processImages(imageFiles, List.of(new OutputSpec(targetWidth, targetHeight)), outputPrefix);
+    }
+
+    /**
+     * Обробляє зображення, створюючи з кожного джерела всі задані варіанти
+     * за одне декодування
+     */
+    public void processImages(File[] imageFiles, List<OutputSpec> outputSpecs, String outputPrefix) {
+        Log.info("Starting processing of " + imageFiles.length + " images...");
+        processImages(Arrays.stream(imageFiles).filter(this::isImageFile).iterator(),
+                outputSpecs, outputPrefix);
+    }
+
+    /**
+     * Обробляє файли по мірі їх надходження з ітератора (наприклад, ImageFileWalker):
+     * задачі потрапляють у пул одразу, не чекаючи завершення обходу.
+     * Ітератор має повертати лише файли зображень.
+     */
+    public void processImages(Iterator<File> imageFiles, List<OutputSpec> outputSpecs,
+                              String outputPrefix) {
+        Log.info("Output directory: " + outputDirectory.getAbsolutePath());
+        JobCheckpoint checkpoint = beginCheckpoint(outputSpecs, outputPrefix);
+
+        BlockingQueue<Future<File>> completedTasks = new LinkedBlockingQueue<>();
+        int submittedTasks = 0;
+        int collectedTasks = 0;
+        boolean interrupted = false;
+
+        while (imageFiles.hasNext()) {
+            try {
+                // Під час паузи нові задачі не передаються
+                if (!job.awaitRunning()) {
+                    break;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                interrupted = true;
+                Log.warn("Submission interrupted");
+                break;
+            }
+            File file = imageFiles.next();
+
+            if (checkpoint != null) {
+                int completedSequence = checkpoint.getSequence(file);
+                if (completedSequence > 0) {
+                    // Лічильник просувається так само, як у перерваному запуску, тож джерела,
+                    // що не встигли потрапити в контрольну точку, отримають ті самі номери
+                    sequenceCounter.accumulateAndGet(completedSequence, Math::max);
+                    metrics.imageSkipped();
+                    Log.debug("Completed before restart, skipped: " + file.getName());
+                    continue;
+                }
+            }
+
+            // Номер призначається в порядку вхідних файлів, а не завершення обробки.
+            // В інкрементальному режимі відоме джерело зберігає свій попередній номер.
+            int knownSequence = manifest != null ? manifest.getSequence(file) : 0;
+            int sequence = knownSequence > 0 ? knownSequence : sequenceCounter.incrementAndGet();
+            ImageTask task = new ImageTask(file, outputSpecs, outputPrefix, resampleMode, fitMode,
+                    encoderSettings, sequence);
+
+            try {
+                // Блокується, доки в черзі пулу не з'явиться місце. Маніфест і заголовок
+                // файлу читає вже сама задача (див. admit)
+                if (!admission.acquire(job)) {
+                    break;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                interrupted = true;
+                Log.warn("Submission interrupted");
+                break;
+            }
+
+            ImageResizer resizer = new ImageResizer(task, committer, manifest != null, metrics, cache);
+            AtomicLong reservedBytes = new AtomicLong();
+            CompletableFuture<File> future = submit(task, resizer, reservedBytes);
+            // Результат рахується одразу по завершенні, щоб прогрес оновлювався в реальному часі
+            future.whenComplete((result, error) -> {
+                if (error == null && result == null) {
+                    metrics.imageSkipped();
+                    Log.info("Unchanged, skipped: " + file.getName());
+                } else if (error == null) {
+                    metrics.imageCompleted();
+                    if (checkpoint != null) {
+                        checkpoint.record(file, sequence);
+                    }
+                } else if (isCancellation(error)) {
+                    // Задача, скасована до резервування пам'яті, ще не потрапила до обробки
+                    if (reservedBytes.get() > 0) {
+                        metrics.imageCancelled();
+                    }
+                } else {
+                    metrics.imageFailed();
+                }
+                admission.release(reservedBytes.get());
+                completedTasks.add(future);
+            });
+            submittedTasks++;
+
+            // Результати, що вже готові, забираються одразу, не накопичуючись
+            Future<File> done;
+            while ((done = completedTasks.poll()) != null) {
+                collectResult(done, ++collectedTasks, submittedTasks);
+            }
+        }
+
+        // Очікування завершення всіх задач
+        while (collectedTasks < submittedTasks) {
+            try {
+                collectResult(completedTasks.take(), ++collectedTasks, submittedTasks);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                interrupted = true;
+                Log.warn("Waiting for tasks interrupted");
+                break;
+            }
+        }
+
+        metrics.markFinished();
+        if (job.isCancelled() || interrupted) {
+            Log.warn("Processing cancelled: " + metrics.getCancelled() + " task(s) dropped before writing");
+        } else {
+            Log.info("All images processed.");
+        }
+        finishCheckpoint(checkpoint, !job.isCancelled() && !interrupted);
+    }
+
+    private JobCheckpoint beginCheckpoint(List<OutputSpec> outputSpecs, String outputPrefix) {
+        JobCheckpoint current = checkpoint;
+        if (current == null) {
+            return null;
+        }
+        try {
+            current.begin(ImageTask.parametersKey(outputPrefix, outputSpecs, resampleMode, fitMode,
+                    encoderSettings));
+        } catch (IOException e) {
+            Log.warn("Checkpoint disabled, cannot write: " + e.getMessage());
+            return null;
+        }
+        if (current.getCompletedCount() > 0) {
+            Log.info("Resuming: " + current.getCompletedCount() + " input(s) already completed");
+        }
+        return current;
+    }
+
+    /**
+     * Після повної обробки без помилок контрольна точка видаляється; інакше
+     * зберігається, щоб повторний запуск обробив лише решту і невдалі джерела
+     */
+    private void finishCheckpoint(JobCheckpoint checkpoint, boolean finished) {
+        if (checkpoint == null) {
+            return;
+        }
+        if (finished && metrics.getFailed() == 0) {
+            checkpoint.delete();
+        } else {
+            checkpoint.close();
+            Log.info("Checkpoint saved: " + checkpoint.getCompletedCount()
+                    + " input(s) completed; run again with it to resume");
+        }
+    }
+
+    private static boolean isCancellation(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null
+                ? error.getCause() : error;
+        return cause instanceof CancellationException;
+    }
+
+    /**
+     * Викликається на межі етапів: чекає, поки обробку призупинено, і перериває
+     * задачу, якщо її скасовано
+     */
+    private void checkRunning() {
+        try {
+            if (job.awaitRunning()) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        throw new CancellationException("Job cancelled");
+    }
+
+    /**
+     * Передає задачу в пул. У поетапному режимі читання та запис виконуються на
+     * віртуальних потоках, а декодування, масштабування і кодування — у пулі
+     * обробки розміром із кількість ядер. Кількість задач між етапами обмежена
+     * контролером допуску (бюджет пам'яті та maxPendingTasks).
+     *
+     * @return майбутній результат: джерело або null, якщо воно не змінилося з попереднього запуску
+     */
+    private CompletableFuture<File> submit(ImageTask task, ImageResizer resizer, AtomicLong reservedBytes) {
+        if (!stagedIo) {
+            return CompletableFuture.supplyAsync(() -> {
+                checkRunning();
+                try {
+                    return admit(task, reservedBytes) ? resizer.call() : null;
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            }, resizeExecutor);
+        }
+
+        return CompletableFuture.supplyAsync(() -> {
+            checkRunning();
+            try {
+                return admit(task, reservedBytes) ? resizer.read() : null;
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, ioExecutor).thenApplyAsync(source -> {
+            if (source == null) {
+                return null;
+            }
+            checkRunning();
+            try {
+                return resizer.transform(source);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, resizeExecutor).thenApplyAsync(encoded -> {
+            if (encoded == null) {
+                return null;
+            }
+            checkRunning();
+            try {
+                return resizer.write(encoded);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, ioExecutor);
+    }
+
+    /**
+     * Початок задачі: перевірка маніфесту та резервування пам'яті за оцінкою із
+     * заголовка. Обидва читання файлу виконуються тут, на етапі читання, а не в
+     * потоці, що передає задачі, тож вони не вишиковуються в одну чергу.
+     *
+     * @return false, якщо джерело не змінилося з попереднього запуску
+     */
+    private boolean admit(ImageTask task, AtomicLong reservedBytes) {
+        OutputManifest current = manifest;
+        if (current != null && current.isUpToDate(task)) {
+            return false;
+        }
+        long bytes = AdmissionController.estimateBytes(task);
+        try {
+            // Блокується, доки в бюджеті пам'яті не з'явиться місце
+            if (!admission.reserve(bytes, job)) {
+                throw new CancellationException("Job cancelled");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Job cancelled");
+        }
+        reservedBytes.set(bytes);
+        metrics.imageQueued();
+        return true;
+    }
+
+    private void collectResult(Future<File> future, int collected, int submitted) {
+        try {
+            future.get();
+            Log.info("Progress: " + collected + "/" + submitted);
+        } catch (ExecutionException e) {
+            if (!isCancellation(e.getCause())) {
+                Log.error("Task failed: " + e.getMessage());
+            }
+        } catch (InterruptedException e) {
+            Log.error("Task failed: " + e.getMessage());
+        }
+    }
+
+    public void shutdown() {
+        if (tunerScheduler != null) {
+            tunerScheduler.shutdownNow();
+        }
+        if (manifestSaver != null) {
+            manifestSaver.shutdownNow();
+        }
+        if (ownsExecutors) {
+            resizeExecutor.shutdown();
+            ioExecutor.shutdown();
+            // Задачі не відкидаються: без скасування вони доводяться до кінця
+            awaitTermination(resizeExecutor);
+            awaitTermination(ioExecutor);
+        }
+
+        committer.close();
+        if (checkpoint != null) {
+            checkpoint.close();
+        }
+
+        if (manifest != null) {
+            try {
+                manifest.save();
+            } catch (IOException e) {
+                Log.warn("Could not save manifest: " + e.getMessage());
+            }
+        }
+        if (cache != null) {
+            cache.saveIndex();
+        }
+
+        Log.info("\n" + "=".repeat(40));
+        Log.info("STATISTICS");
+        Log.info("=".repeat(40));
+        Log.info("Images processed: " + metrics.getCompleted());
+        Log.info("Images failed: " + metrics.getFailed());
+        if (manifest != null || checkpoint != null) {
+            Log.info("Unchanged (skipped): " + metrics.getSkipped());
+        }
+        if (metrics.getCancelled() > 0) {
+            Log.info("Cancelled: " + metrics.getCancelled());
+        }
+        Log.info("Files committed: " + committer.getCommittedCount());
+        if (cache != null) {
+            Log.info("Thumbnail cache: " + cache.getFileCount() + " file(s), "
+                    + String.format("%.1f MB", cache.getTotalBytes() / 1048576.0));
+        }
+        Log.info("Raster buffers reused: " + RasterPool.getReusedCount()
+                + ", allocated: " + RasterPool.getAllocatedCount());
+        Log.info("Codecs reused: " + ImageCodecs.getReusedCount()
+                + ", created: " + ImageCodecs.getCreatedCount());
+        Log.info(metrics.formatSummary().stripTrailing());
+        Log.info("Saved to: " + outputDirectory.getAbsolutePath());
+        Log.info("=".repeat(40));
+        Log.info("Processing completed!");
+    }
+
+    /**
+     * Чекає завершення задач пулу без обмеження часу. Переривання скасовує
+     * обробку: задачі, що ще не почали запис, завершуються без нього.
+     */
+    private void awaitTermination(ExecutorService executor) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                if (executor.awaitTermination(SHUTDOWN_LOG_INTERVAL_SECONDS, TimeUnit.SECONDS)) {
+                    break;
+                }
+                Log.warn("Still waiting for " + metrics.getInFlight() + " task(s) to finish");
+            } catch (InterruptedException e) {
+                interrupted = true;
+                job.cancel();
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Вмикає інкрементальний режим: маніфест у вихідній директорії дозволяє
+     * пропускати джерела, які не змінилися з попереднього запуску.
+     * Відомі джерела зберігають свої номери, нові продовжують нумерацію з маніфесту.
+     */
+    public void setIncremental(boolean incremental) throws IOException {
+        if (!incremental) {
+            manifest = null;
+            committer.setManifest(null);
+            return;
+        }
+
+        OutputManifest loaded = new OutputManifest(outputDirectory);
+        loaded.load();
+        sequenceCounter.accumulateAndGet(loaded.getMaxSequence(), Math::max);
+        manifest = loaded;
+        committer.setManifest(loaded);
+    }
+
+    /**
+     * Періодично зберігає маніфест інкрементального режиму, а не лише в shutdown:
+     * потрібно для режиму спостереження, де обробка триває, доки її не скасують.
+     * Незмінений маніфест не перезаписується.
+     */
+    public synchronized void setManifestAutosave(long intervalMillis) {
+        if (manifestSaver != null || manifest == null) {
+            return;
+        }
+        manifestSaver = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "manifest-save");
+            thread.setDaemon(true);
+            return thread;
+        });
+        manifestSaver.scheduleWithFixedDelay(() -> {
+            OutputManifest current = manifest;
+            if (current == null) {
+                return;
+            }
+            try {
+                current.save();
+            } catch (IOException e) {
+                Log.warn("Could not save manifest: " + e.getMessage());
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Зберігає прогрес у файлі контрольної точки. Якщо файл лишився від перерваного
+     * запуску з тими самими параметрами, вже оброблені джерела пропускаються.
+     * Викликається до processImages.
+     */
+    public void setCheckpoint(File file) throws IOException {
+        if (file == null) {
+            checkpoint = null;
+            return;
+        }
+        JobCheckpoint loaded = new JobCheckpoint(file);
+        loaded.load();
+        checkpoint = loaded;
+    }
+
+    /**
+     * Вмикає кеш закодованих варіантів у directory, спільний для запусків і вихідних
+     * директорій: джерело з тим самим вмістом і параметрами не декодується, а його
+     * результати беруться з кешу. null вимикає кеш. Якщо кеш не вдається
+     * відкрити, обробка йде без нього.
+     *
+     * @param capacity найбільший розмір кешу в байтах
+     */
+    public void setCache(File directory, long capacity) {
+        if (directory == null) {
+            cache = null;
+            return;
+        }
+        ThumbnailCache loaded = new ThumbnailCache(directory, capacity);
+        try {
+            loaded.load();
+        } catch (IOException e) {
+            Log.warn("Thumbnail cache disabled, cannot open " + directory + ": " + e.getMessage());
+            cache = null;
+            return;
+        }
+        cache = loaded;
+    }
+
+    /**
+     * Вмикає вже відкритий кеш (спільний для обробок служби) або вимикає кеш (null)
+     */
+    public void setCache(ThumbnailCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Пауза, продовження і скасування поточної обробки
+     */
+    public BatchJob getJob() {
+        return job;
+    }
+
+    /**
+     * Встановлює бюджет пам'яті (у байтах) під декодовані пікселі задач, що виконуються
+     */
+    public void setMemoryBudget(long bytes) {
+        admission.setCapacity(bytes);
+    }
+
+    /**
+     * Верхня межа адаптивного пулу: із запасом для режиму без поетапного вводу-виводу,
+     * де потоки частину часу чекають на диск
+     */
+    public static int maxAdaptiveThreads() {
+        return Runtime.getRuntime().availableProcessors() * 4;
+    }
+
+    /**
+     * Вмикає адаптивний розмір пулу обробки: починаючи з поточного розміру,
+     * WorkerTuner кожні TUNING_INTERVAL_MS змінює кількість потоків у межах
+     * від 1 до maxThreads за виміряною пропускною здатністю та тиском на пам'ять
+     */
+    public synchronized void setAdaptiveThreads(int maxThreads) {
+        if (tunerScheduler != null) {
+            return;
+        }
+        WorkerTuner tuner = new WorkerTuner(resizeExecutor, metrics, admission, 1, maxThreads);
+        tunerScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "worker-tuner");
+            thread.setDaemon(true);
+            return thread;
+        });
+        tunerScheduler.scheduleAtFixedRate(tuner, TUNING_INTERVAL_MS, TUNING_INTERVAL_MS,
+                TimeUnit.MILLISECONDS);
+        Log.info("Adaptive worker threads: starting at " + resizeExecutor.getParallelism()
+                + ", up to " + maxThreads);
+    }
+
+    /**
+     * Вмикає або вимикає поетапну обробку (віртуальні потоки для читання і запису
+     * файлів). Без неї всі етапи виконуються в одному потоці пулу обробки.
+     */
+    public void setStagedIo(boolean stagedIo) {
+        this.stagedIo = stagedIo;
+    }
+
+    /**
+     * Встановлює алгоритм масштабування для наступних задач
+     */
+    public void setResampleMode(ResampleMode resampleMode) {
+        this.resampleMode = resampleMode;
+    }
+
+    /**
+     * Встановлює режим вписування джерела в розмір варіантів для наступних задач
+     */
+    public void setFitMode(FitMode fitMode) {
+        this.fitMode = fitMode;
+    }
+
+    /**
+     * Встановлює налаштування кодувальників і примусовий формат виводу для наступних задач
+     */
+    public void setEncoderSettings(EncoderSettings encoderSettings) {
+        this.encoderSettings = encoderSettings;
+    }
+
+    private boolean isImageFile(File file) {
+        return file.isFile() && ImageFileWalker.hasImageExtension(file.getName());
+    }
+
+    public int getProcessedCount() {
+        return (int) metrics.getCompleted();
+    }
+
+    public int getFailedCount() {
+        return (int) metrics.getFailed();
+    }
+
+    public int getSkippedCount() {
+        return (int) metrics.getSkipped();
+    }
+
+    /**
+     * Метрики поточної обробки; оновлюються в реальному часі з потоків пулу
+     */
+    public PipelineMetrics getMetrics() {
+        return metrics;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,613 @@
+package imagecreator;
+
+import javax.imageio.ImageIO;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Консольний (headless) режим запуску пакетної обробки без Swing
+ */
+public class ImageCreatorCLI {
+    public static final int EXIT_OK = 0;
+    public static final int EXIT_FAILURES = 1;
+    public static final int EXIT_USAGE = 2;
+    public static final int EXIT_CANCELLED = 3;
+
+    private static final long METRICS_EXPORT_INTERVAL_SECONDS = 5;
+    /** Скільки обробник завершення JVM чекає на задачі, що вже виконуються */
+    private static final long CANCEL_TIMEOUT_SECONDS = 30;
+    /** Як часто маніфест зберігається в режимі спостереження */
+    private static final long WATCH_MANIFEST_SAVE_MS = 5000;
+    static final long LOG_FILE_MAX_BYTES = 10L * 1024 * 1024;
+    static final int LOG_FILE_BACKUPS = 5;
+    /** Параметри всього процесу: у задачах служби їх задає сама служба */
+    private static final Set<String> PROCESS_OPTIONS = Set.of("--threads", "--single-stage",
+            "--memory-budget", "--metrics", "--log-level", "--log-file", "--cache", "--cache-size");
+
+    private final List<String> inputs = new ArrayList<>();
+    private final List<OutputSpec> outputSpecs = new ArrayList<>();
+    private File outputDirectory;
+    private int width = 200;
+    private int height = 200;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private boolean adaptiveThreads;
+    private String prefix = "thumbnail";
+    private ResampleMode resampleMode = ResampleMode.BICUBIC;
+    private FitMode fitMode = FitMode.STRETCH;
+    private EncoderSettings encoderSettings = EncoderSettings.DEFAULTS;
+    private long memoryBudget = AdmissionController.defaultCapacity();
+    private ImageFileWalker.Detection detection = ImageFileWalker.Detection.EXTENSION;
+    private boolean incremental;
+    private File checkpointFile;
+    private File cacheDirectory;
+    private long cacheSize = ThumbnailCache.DEFAULT_CAPACITY;
+    private boolean stagedIo = true;
+    private boolean watch;
+    private long settleMillis = FolderWatcher.DEFAULT_SETTLE_MILLIS;
+    private String markerSuffix;
+    private File metricsFile;
+    private File logFile;
+    private Log.Level logLevel;
+    private final Set<String> processOptions = new HashSet<>();
+
+    /**
+     * Запускає обробку з аргументами командного рядка та повертає код завершення
+     */
+    public static int run(String[] args) {
+        if (args.length > 0 && args[0].equals("--serve")) {
+            return JobService.run(Arrays.copyOfRange(args, 1, args.length));
+        }
+        ImageCreatorCLI cli = new ImageCreatorCLI();
+        try {
+            if (!cli.parseArgs(args)) {
+                printUsage();
+                return EXIT_OK;
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("ERROR: " + e.getMessage());
+            printUsage();
+            return EXIT_USAGE;
+        }
+        return cli.execute();
+    }
+
+    private boolean parseArgs(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (PROCESS_OPTIONS.contains(arg)) {
+                processOptions.add(arg);
+            }
+            switch (arg) {
+                case "--help":
+                    return false;
+                case "--input":
+                    inputs.add(requireValue(args, ++i, arg));
+                    break;
+                case "--output":
+                    outputDirectory = new File(requireValue(args, ++i, arg));
+                    break;
+                case "--width":
+                    width = parsePositiveInt(requireValue(args, ++i, arg), arg);
+                    break;
+                case "--height":
+                    height = parsePositiveInt(requireValue(args, ++i, arg), arg);
+                    break;
+                case "--threads":
+                    String value = requireValue(args, ++i, arg);
+                    // "auto": старт з кількості ядер і підбір за пропускною здатністю
+                    adaptiveThreads = value.equalsIgnoreCase("auto");
+                    threads = adaptiveThreads ? Runtime.getRuntime().availableProcessors()
+                            : parsePositiveInt(value, arg);
+                    break;
+                case "--prefix":
+                    prefix = requireValue(args, ++i, arg);
+                    break;
+                case "--size":
+                    outputSpecs.add(OutputSpec.parse(requireValue(args, ++i, arg)));
+                    break;
+                case "--memory-budget":
+                    memoryBudget = parseByteSize(requireValue(args, ++i, arg), arg);
+                    break;
+                case "--incremental":
+                    incremental = true;
+                    break;
+                case "--checkpoint":
+                    checkpointFile = new File(requireValue(args, ++i, arg));
+                    break;
+                case "--cache":
+                    cacheDirectory = new File(requireValue(args, ++i, arg));
+                    break;
+                case "--cache-size":
+                    cacheSize = parseByteSize(requireValue(args, ++i, arg), arg);
+                    break;
+                case "--watch":
+                    watch = true;
+                    break;
+                case "--settle":
+                    settleMillis = parsePositiveInt(requireValue(args, ++i, arg), arg);
+                    break;
+                case "--marker":
+                    markerSuffix = requireValue(args, ++i, arg);
+                    if (markerSuffix.isEmpty() || markerSuffix.contains(File.separator)) {
+                        throw new IllegalArgumentException("Invalid marker suffix: " + markerSuffix);
+                    }
+                    break;
+                case "--detect-by-content":
+                    detection = ImageFileWalker.Detection.MAGIC;
+                    break;
+                case "--metrics":
+                    metricsFile = new File(requireValue(args, ++i, arg));
+                    break;
+                case "--log-level":
+                    logLevel = parseLogLevel(requireValue(args, ++i, arg));
+                    break;
+                case "--log-file":
+                    logFile = new File(requireValue(args, ++i, arg));
+                    break;
+                case "--single-stage":
+                    stagedIo = false;
+                    break;
+                case "--fit":
+                    fitMode = parseFitMode(requireValue(args, ++i, arg));
+                    break;
+                case "--format":
+                    encoderSettings = encoderSettings.withOutputFormat(
+                            parseFormat(requireValue(args, ++i, arg)));
+                    break;
+                case "--quality":
+                    encoderSettings = encoderSettings.withJpegQuality(
+                            parseQuality(requireValue(args, ++i, arg), arg));
+                    break;
+                case "--progressive":
+                    encoderSettings = encoderSettings.withProgressive(true);
+                    break;
+                case "--chroma":
+                    encoderSettings = encoderSettings.withChromaSubsampling(
+                            EncoderSettings.ChromaSubsampling.parse(requireValue(args, ++i, arg)));
+                    break;
+                case "--png-compression":
+                    encoderSettings = encoderSettings.withPngCompressionLevel(
+                            parsePngCompression(requireValue(args, ++i, arg), arg));
+                    break;
+                case "--filter":
+                    resampleMode = parseResampleMode(requireValue(args, ++i, arg));
+                    break;
+                default:
+                    if (arg.startsWith("--")) {
+                        throw new IllegalArgumentException("Unknown option: " + arg);
+                    }
+                    // Позиційні аргументи трактуються як вхідні шляхи
+                    inputs.add(arg);
+            }
+        }
+
+        if (inputs.isEmpty()) {
+            throw new IllegalArgumentException("No input directories or globs specified");
+        }
+        if (outputDirectory == null) {
+            throw new IllegalArgumentException("Output directory is required (--output)");
+        }
+        if (watch && checkpointFile != null) {
+            // Спостереження не завершується успіхом, тож контрольна точка лише росла б
+            throw new IllegalArgumentException("--checkpoint cannot be used with --watch (use --incremental)");
+        }
+        if (!watch && (markerSuffix != null || settleMillis != FolderWatcher.DEFAULT_SETTLE_MILLIS)) {
+            throw new IllegalArgumentException("--settle and --marker require --watch");
+        }
+        resolveOutputSpecs();
+        return true;
+    }
+
+    /**
+     * Без --size використовується один варіант --width x --height. Кілька варіантів
+     * без явного суфікса отримують суфікс "_WxH", щоб імена файлів не збігалися.
+     * Збіг імен, що залежить від формату джерела, перевіряється для кожного файлу
+     * (OutputCommitter.checkFinalNames).
+     */
+    private void resolveOutputSpecs() {
+        if (outputSpecs.isEmpty()) {
+            outputSpecs.add(new OutputSpec(width, height));
+            return;
+        }
+
+        Set<String> names = new HashSet<>();
+        for (int i = 0; i < outputSpecs.size(); i++) {
+            OutputSpec spec = outputSpecs.get(i);
+            if (outputSpecs.size() > 1 && spec.getSuffix().isEmpty()) {
+                spec = spec.withSuffix("_" + spec.getWidth() + "x" + spec.getHeight());
+                outputSpecs.set(i, spec);
+            }
+            // Варіанти без формату (ні в --size, ні в --format) мають розширення джерела
+            String format = spec.resolveFormat(encoderSettings.getOutputFormat());
+            if (!names.add((spec.getSuffix() + "." + (format == null ? "*" : format)).toLowerCase())) {
+                throw new IllegalArgumentException("Output specs produce the same file name: " + spec);
+            }
+        }
+    }
+
+    /**
+     * Розбирає аргументи задачі служби (ті самі, що й для одного запуску).
+     * Параметри всього процесу (потоки, бюджет пам'яті, журнал, метрики, кеш)
+     * задаються службі при запуску, тож у задачі вони не допускаються.
+     */
+    static ImageCreatorCLI parseJob(List<String> args) {
+        ImageCreatorCLI cli = new ImageCreatorCLI();
+        if (!cli.parseArgs(args.toArray(new String[0]))) {
+            throw new IllegalArgumentException("--help is not a job option");
+        }
+        if (!cli.processOptions.isEmpty()) {
+            throw new IllegalArgumentException("Not allowed in a job (set them for the service): "
+                    + String.join(", ", new TreeSet<>(cli.processOptions)));
+        }
+        return cli;
+    }
+
+    /**
+     * Застосовує до обробки параметри задачі: фільтр, вписування, кодування,
+     * інкрементальний режим і контрольну точку
+     */
+    void configureJob(ImageCreator creator) throws IOException {
+        creator.setResampleMode(resampleMode);
+        creator.setFitMode(fitMode);
+        creator.setEncoderSettings(encoderSettings);
+        creator.setIncremental(incremental);
+        creator.setCheckpoint(checkpointFile);
+    }
+
+    /**
+     * Передає вхідні файли в обробку: обхід вхідних шляхів або, з --watch,
+     * спостереження за вхідними директоріями, доки обробку не скасують
+     */
+    void processInputs(ImageCreator creator) throws IOException {
+        // Результати й кеш не мають потрапляти назад на вхід
+        List<File> excluded = new ArrayList<>();
+        excluded.add(outputDirectory);
+        if (cacheDirectory != null) {
+            excluded.add(cacheDirectory);
+        }
+        if (!watch) {
+            // Файли надходять у пул по мірі обходу директорій
+            try (ImageFileWalker walker = new ImageFileWalker(inputs, detection, excluded)) {
+                creator.processImages(walker, outputSpecs, prefix);
+            }
+            return;
+        }
+
+        List<File> directories = new ArrayList<>();
+        for (String input : inputs) {
+            directories.add(new File(input));
+        }
+        // Спостерігач закривається і зі слухача скасування, тож без try-with-resources
+        FolderWatcher watcher = new FolderWatcher(directories, excluded, detection, settleMillis, markerSuffix);
+        try {
+            BatchJob job = creator.getJob();
+            // Скасування будить очікування нових файлів
+            job.addStateListener(() -> {
+                if (job.isCancelled()) {
+                    watcher.close();
+                }
+            });
+            if (job.isCancelled()) {
+                watcher.close();
+            }
+            creator.setManifestAutosave(WATCH_MANIFEST_SAVE_MS);
+            creator.processImages(watcher, outputSpecs, prefix);
+        } finally {
+            watcher.close();
+        }
+    }
+
+    File getOutputDirectory() {
+        return outputDirectory;
+    }
+
+    private int execute() {
+        if (logLevel != null) {
+            Log.setLevel(logLevel);
+        }
+        if (!outputDirectory.isDirectory() && !outputDirectory.mkdirs()) {
+            System.err.println("ERROR: Cannot create output directory: " + outputDirectory.getAbsolutePath());
+            return EXIT_USAGE;
+        }
+
+        RollingFileLogSink fileSink = null;
+        if (logFile != null) {
+            try {
+                fileSink = new RollingFileLogSink(logFile, LOG_FILE_MAX_BYTES, LOG_FILE_BACKUPS);
+                Log.addSink(fileSink);
+            } catch (IOException e) {
+                System.err.println("ERROR: Cannot open log file: " + e.getMessage());
+                return EXIT_USAGE;
+            }
+        }
+        try {
+            return process();
+        } finally {
+            Log.flush();
+            if (fileSink != null) {
+                Log.removeSink(fileSink);
+                fileSink.close();
+            }
+        }
+    }
+
+    private int process() {
+
+        long startTime = System.currentTimeMillis();
+
+        ImageCreator creator = new ImageCreator(threads, outputDirectory);
+        creator.setResampleMode(resampleMode);
+        creator.setFitMode(fitMode);
+        creator.setEncoderSettings(encoderSettings);
+        creator.setMemoryBudget(memoryBudget);
+        creator.setStagedIo(stagedIo);
+        if (adaptiveThreads) {
+            creator.setAdaptiveThreads(ImageCreator.maxAdaptiveThreads());
+        }
+        try {
+            creator.setIncremental(incremental);
+        } catch (IOException e) {
+            Log.error("Cannot read manifest: " + e.getMessage());
+            creator.shutdown();
+            return EXIT_USAGE;
+        }
+        try {
+            creator.setCheckpoint(checkpointFile);
+        } catch (IOException e) {
+            Log.error("Cannot read checkpoint: " + e.getMessage());
+            creator.shutdown();
+            return EXIT_USAGE;
+        }
+        creator.setCache(cacheDirectory, cacheSize);
+
+        // Під час довгої обробки файл метрик оновлюється періодично
+        ScheduledExecutorService metricsExporter = null;
+        if (metricsFile != null) {
+            metricsExporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "metrics-exporter");
+                thread.setDaemon(true);
+                return thread;
+            });
+            metricsExporter.scheduleAtFixedRate(() -> exportMetrics(creator),
+                    METRICS_EXPORT_INTERVAL_SECONDS, METRICS_EXPORT_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        }
+
+        // Ctrl+C або SIGTERM скасовує обробку: JVM чекає, доки задачі, що вже пишуть
+        // результати, завершаться, а контрольна точка буде збережена
+        CountDownLatch finished = new CountDownLatch(1);
+        Thread cancelHook = new Thread(() -> {
+            creator.getJob().cancel();
+            try {
+                finished.await(CANCEL_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            Log.flush();
+        }, "cancel-on-exit");
+        Runtime.getRuntime().addShutdownHook(cancelHook);
+
+        boolean started = true;
+        try {
+            processInputs(creator);
+        } catch (IOException e) {
+            Log.error("Cannot read input directories: " + e.getMessage());
+            started = false;
+        }
+        creator.shutdown();
+        finished.countDown();
+        try {
+            Runtime.getRuntime().removeShutdownHook(cancelHook);
+        } catch (IllegalStateException e) {
+            // JVM уже завершується; обробник дочекався цього місця
+        }
+
+        if (metricsExporter != null) {
+            metricsExporter.shutdownNow();
+            exportMetrics(creator);
+        }
+
+        double duration = (System.currentTimeMillis() - startTime) / 1000.0;
+        Log.info("Execution time: " + String.format("%.2f", duration) + " sec");
+
+        if (!started) {
+            return EXIT_USAGE;
+        }
+        // Спостереження завершується лише скасуванням, і це його звичайний кінець
+        if (creator.getJob().isCancelled() && !watch) {
+            Log.error("Cancelled after " + creator.getProcessedCount() + " image(s)");
+            return EXIT_CANCELLED;
+        }
+        if (!watch && creator.getProcessedCount() + creator.getFailedCount() + creator.getSkippedCount() == 0) {
+            Log.error("No input files found");
+            return EXIT_FAILURES;
+        }
+        if (creator.getFailedCount() > 0) {
+            Log.error(creator.getFailedCount() + " file(s) failed");
+            return EXIT_FAILURES;
+        }
+        return EXIT_OK;
+    }
+
+    private void exportMetrics(ImageCreator creator) {
+        try {
+            creator.getMetrics().writePrometheus(metricsFile);
+        } catch (IOException e) {
+            Log.warn("Could not write metrics: " + e.getMessage());
+        }
+    }
+
+    static String requireValue(String[] args, int index, String option) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + option);
+        }
+        return args[index];
+    }
+
+    static int parsePositiveInt(String value, String option) {
+        try {
+            int result = Integer.parseInt(value);
+            if (result <= 0) {
+                throw new IllegalArgumentException(option + " must be positive: " + value);
+            }
+            return result;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number for " + option + ": " + value);
+        }
+    }
+
+    /**
+     * Розбирає розмір у байтах з необов'язковим суфіксом k, m або g ("512m", "2g")
+     */
+    static long parseByteSize(String value, String option) {
+        String number = value.trim().toLowerCase();
+        long multiplier = 1;
+        if (number.endsWith("k")) {
+            multiplier = 1024L;
+        } else if (number.endsWith("m")) {
+            multiplier = 1024L * 1024;
+        } else if (number.endsWith("g")) {
+            multiplier = 1024L * 1024 * 1024;
+        }
+        if (multiplier > 1) {
+            number = number.substring(0, number.length() - 1);
+        }
+        try {
+            long result = Long.parseLong(number) * multiplier;
+            if (result <= 0) {
+                throw new IllegalArgumentException(option + " must be positive: " + value);
+            }
+            return result;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid size for " + option + ": " + value);
+        }
+    }
+
+    private static String parseFormat(String value) {
+        if (!ImageIO.getImageWritersByFormatName(value).hasNext()) {
+            throw new IllegalArgumentException("No writer for output format: " + value);
+        }
+        // Формат стає розширенням імені, як і формат у --size
+        return value.toLowerCase();
+    }
+
+    private static float parseQuality(String value, String option) {
+        try {
+            float result = Float.parseFloat(value);
+            if (result < 0 || result > 1) {
+                throw new IllegalArgumentException(option + " must be in range 0..1: " + value);
+            }
+            return result;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number for " + option + ": " + value);
+        }
+    }
+
+    private static int parsePngCompression(String value, String option) {
+        try {
+            int result = Integer.parseInt(value);
+            if (result < 0 || result > 9) {
+                throw new IllegalArgumentException(option + " must be in range 0..9: " + value);
+            }
+            return result;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number for " + option + ": " + value);
+        }
+    }
+
+    private static ResampleMode parseResampleMode(String value) {
+        try {
+            return ResampleMode.parse(value);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown filter: " + value);
+        }
+    }
+
+    private static FitMode parseFitMode(String value) {
+        try {
+            return FitMode.parse(value);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown fit mode: " + value);
+        }
+    }
+
+    static Log.Level parseLogLevel(String value) {
+        try {
+            return Log.Level.parse(value);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown log level: " + value);
+        }
+    }
+
+    private static void printUsage() {
+        System.out.println("Usage: java Main --output <dir> [options] <input>...");
+        System.out.println("       java Main --serve [service options]   (see --serve --help)");
+        System.out.println();
+        System.out.println("Inputs are directories (walked recursively), files or globs");
+        System.out.println("(quote globs: \"/data/**/*.jpg\"). Processing starts while walking.");
+        System.out.println();
+        System.out.println("Options:");
+        System.out.println("  --input <path|glob>   Input directory, file or glob (repeatable)");
+        System.out.println("  --output <dir>        Output directory (required)");
+        System.out.println("  --width <px>          Target width (default 200)");
+        System.out.println("  --height <px>         Target height (default 200)");
+        System.out.println("  --threads <n|auto>    Decode/scale/encode threads (default: available");
+        System.out.println("                        processors); file reads and writes run on virtual threads.");
+        System.out.println("                        auto starts at the processor count and adjusts the pool");
+        System.out.println("                        to the measured images/sec and memory pressure");
+        System.out.println("  --single-stage        Run all stages of an image on one pool thread");
+        System.out.println("  --prefix <name>       Output file prefix (default thumbnail)");
+        System.out.println("  --size <spec>         Output variant WxH[:format[:quality[:suffix]]],");
+        System.out.println("                        e.g. 800x800:jpg:0.9 (repeatable, overrides");
+        System.out.println("                        --width/--height; all variants share one decode)");
+        System.out.println("  --format <fmt>        Encode variants without an explicit format as jpg,");
+        System.out.println("                        png, bmp... (default: the source format)");
+        System.out.println("  --quality <q>         JPEG quality 0..1 for variants without their own");
+        System.out.println("  --progressive         Write progressive JPEG instead of baseline");
+        System.out.println("  --chroma <mode>       JPEG chroma subsampling: 420 (default), 422 or 444");
+        System.out.println("  --png-compression <n> PNG deflate level 0 (fastest) .. 9 (smallest)");
+        System.out.println("  --memory-budget <n>   Max decoded pixel memory in flight, e.g. 512m");
+        System.out.println("                        (default: half of the max heap)");
+        System.out.println("  --incremental         Skip sources unchanged since the previous run");
+        System.out.println("                        (tracked in a manifest in the output directory)");
+        System.out.println("  --checkpoint <file>   Record completed inputs in <file> (flushed every 2 s);");
+        System.out.println("                        if it exists, resume and skip them. Deleted when the");
+        System.out.println("                        whole batch succeeds; Ctrl+C cancels and keeps it");
+        System.out.println("  --cache <dir>         Reuse encoded variants of sources with the same content");
+        System.out.println("                        and options, shared across runs and output directories;");
+        System.out.println("                        results are copied from <dir>");
+        System.out.println("  --cache-size <n>      Cache size limit, least recently used files are evicted");
+        System.out.println("                        (default 1g)");
+        System.out.println("  --watch               Keep running and process images as they appear in the");
+        System.out.println("                        input directories (existing ones first); stop with");
+        System.out.println("                        Ctrl+C. Combine with --incremental to skip on restart");
+        System.out.println("  --settle <ms>         With --watch: a file is ready once its size has not");
+        System.out.println("                        changed for <ms> (default 1000)");
+        System.out.println("  --marker <suffix>     With --watch: wait for <file><suffix> (e.g. .done)");
+        System.out.println("                        instead of the settle time");
+        System.out.println("  --detect-by-content   Detect images by file signature instead of extension");
+        System.out.println("  --metrics <file>      Write metrics in Prometheus text format, refreshed");
+        System.out.println("                        every 5 s and at the end (node_exporter textfile)");
+        System.out.println("  --log-level <level>   debug, info (default), warn or error");
+        System.out.println("  --log-file <file>     Also write the log to a file, rolled at 10 MB (5 backups)");
+        System.out.println("  --fit <mode>          stretch (default) - exactly WxH, distorting;");
+        System.out.println("                        fit - keep aspect ratio within WxH; pad - fit and");
+        System.out.println("                        pad to WxH; fill - fill WxH, crop the centre; smart -");
+        System.out.println("                        fill, cropping towards the most detailed area");
+        System.out.println("  --filter <name>       bicubic (default), progressive, area-average,");
+        System.out.println("                        mitchell or lanczos3");
+        System.out.println("  --help                Show this help");
+        System.out.println();
+        System.out.println("Exit codes: 0 - success, 1 - some images failed, 2 - invalid arguments,");
+        System.out.println("            3 - cancelled");
+    }
+}
@@ -1,27 +1,48 @@
+package imagecreator;
+
 import javax.swing.*;
 import javax.swing.filechooser.FileNameExtensionFilter;
 import java.awt.*;
 import java.awt.datatransfer.*;
 import java.awt.dnd.*;
 import java.io.File;
-import java.io.PrintStream;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * GUI клас для інтерфейсу програми
  */
 public class ImageCreatorGUI extends JFrame {
+    /** Скільки останніх рядків журналу тримає вікно */
+    private static final int MAX_LOG_LINES = 5000;
+    /** Пункт списку форматів: зберегти формат джерела */
+    private static final String FORMAT_AS_SOURCE = "як у джерела";
+    /** Знайдені при обході папок файли додаються до списку порціями не більше цієї */
+    private static final int WALK_BATCH_FILES = 256;
+    /** і не рідше ніж раз на цей інтервал */
+    private static final long WALK_BATCH_NANOS = 100_000_000L;
+
     private JButton btnSelectFiles;
     private JButton btnSelectOutput;
     private JButton btnProcess;
+    private JButton btnPause;
+    private JButton btnCancel;
     private JButton btnClear;
     private JSpinner spinnerWidth;
     private JSpinner spinnerHeight;
     private JSpinner spinnerThreads;
     private JTextField txtPrefix;
+    private JComboBox<ResampleMode> comboResample;
+    private JComboBox<FitMode> comboFit;
+    private JComboBox<String> comboFormat;
+    private JCheckBox chkIncremental;
+    private JCheckBox chkCache;
+    private JCheckBox chkAutoThreads;
     private JTextField txtOutputPath;
     private JTextArea txtLog;
+    private transient LogView logView;
     private JScrollPane scrollPane;
     private JLabel lblSelectedFiles;
     private JLabel lblStatus;
@@ -30,9 +51,14 @@ public class ImageCreatorGUI extends JFrame {
     private JList<String> fileList;
     private DefaultListModel<String> fileListModel;
 
-    private List<File> selectedFiles = new ArrayList<>();
+    // LinkedHashSet: перевірка дублікатів за O(1) зі збереженням порядку додавання
+    private final Set<File> selectedFiles = new LinkedHashSet<>();
     private File outputDirectory = null;
-    private ImageCreator creator;
+    private volatile ImageCreator creator;
+    /** Обходи доданих папок, що ще тривають; доки вони є, обробка не запускається */
+    private int activeFileWalks;
+    /** Змінюється при очищенні списку, щоб незавершені обходи більше нічого не додавали */
+    private volatile int fileListGeneration;
 
     public ImageCreatorGUI() {
         // Встановлення UTF-8 для компонентів
@@ -45,7 +71,7 @@ public class ImageCreatorGUI extends JFrame {
         initComponents();
         setupDragAndDrop();
         setupClipboardPaste();
-        redirectSystemOut();
+        installLogView();
     }
 
     private void initComponents() {
@@ -133,7 +159,9 @@ public class ImageCreatorGUI extends JFrame {
         gbc.gridx = 0; gbc.gridy = 2;
         settingsPanel.add(createStyledLabel(" Кількість потоків:"), gbc);
         gbc.gridx = 1;
-        spinnerThreads = new JSpinner(new SpinnerNumberModel(4, 1, 16, 1));
+        // Потоки обробки завантажують ядра; очікування диска винесено на віртуальні потоки
+        int processors = Runtime.getRuntime().availableProcessors();
+        spinnerThreads = new JSpinner(new SpinnerNumberModel(processors, 1, Math.max(16, processors), 1));
         styleSpinner(spinnerThreads);
         settingsPanel.add(spinnerThreads, gbc);
 
@@ -144,9 +172,59 @@ public class ImageCreatorGUI extends JFrame {
         styleTextField(txtPrefix);
         settingsPanel.add(txtPrefix, gbc);
 
+        gbc.gridx = 0; gbc.gridy = 4;
+        settingsPanel.add(createStyledLabel(" Алгоритм:"), gbc);
+        gbc.gridx = 1;
+        comboResample = new JComboBox<>(ResampleMode.values());
+        comboResample.setFont(new Font("Segoe UI", Font.PLAIN, 13));
+        comboResample.setPreferredSize(new Dimension(150, 30));
+        settingsPanel.add(comboResample, gbc);
+
+        gbc.gridx = 0; gbc.gridy = 5;
+        settingsPanel.add(createStyledLabel(" Вписування:"), gbc);
+        gbc.gridx = 1;
+        comboFit = new JComboBox<>(FitMode.values());
+        comboFit.setFont(new Font("Segoe UI", Font.PLAIN, 13));
+        comboFit.setPreferredSize(new Dimension(150, 30));
+        comboFit.setToolTipText("STRETCH — розтягнути, FIT — вписати, PAD — вписати з полями, "
+                + "FILL — заповнити з обрізанням по центру, SMART — обрізання за деталізацією");
+        settingsPanel.add(comboFit, gbc);
+
+        gbc.gridx = 0; gbc.gridy = 6;
+        settingsPanel.add(createStyledLabel(" Формат:"), gbc);
+        gbc.gridx = 1;
+        comboFormat = new JComboBox<>(new String[]{FORMAT_AS_SOURCE, "jpg", "png", "bmp"});
+        comboFormat.setFont(new Font("Segoe UI", Font.PLAIN, 13));
+        comboFormat.setPreferredSize(new Dimension(150, 30));
+        comboFormat.setToolTipText("JPEG кодується в рази швидше за PNG і дає менші файли");
+        settingsPanel.add(comboFormat, gbc);
+
+        gbc.gridx = 0; gbc.gridy = 7; gbc.gridwidth = 2;
+        chkIncremental = new JCheckBox("Пропускати незмінені файли");
+        chkIncremental.setFont(new Font("Segoe UI", Font.PLAIN, 13));
+        chkIncremental.setBackground(Color.WHITE);
+        chkIncremental.setToolTipText("Повторний запуск обробляє лише нові та змінені зображення");
+        settingsPanel.add(chkIncremental, gbc);
+
+        gbc.gridx = 0; gbc.gridy = 8; gbc.gridwidth = 2;
+        chkAutoThreads = new JCheckBox("Підбирати кількість потоків автоматично");
+        chkAutoThreads.setFont(new Font("Segoe UI", Font.PLAIN, 13));
+        chkAutoThreads.setBackground(Color.WHITE);
+        chkAutoThreads.setToolTipText("Починає з кількості ядер і змінює розмір пулу за швидкістю обробки");
+        chkAutoThreads.addActionListener(e -> spinnerThreads.setEnabled(!chkAutoThreads.isSelected()));
+        settingsPanel.add(chkAutoThreads, gbc);
+
+        gbc.gridx = 0; gbc.gridy = 9; gbc.gridwidth = 2;
+        chkCache = new JCheckBox("Кеш мініатюр");
+        chkCache.setFont(new Font("Segoe UI", Font.PLAIN, 13));
+        chkCache.setBackground(Color.WHITE);
+        chkCache.setToolTipText("Ті самі зображення з тими самими налаштуваннями беруться з "
+                + ThumbnailCache.defaultDirectory() + " без повторної обробки");
+        settingsPanel.add(chkCache, gbc);
+
         // Інформаційна панель
         JPanel infoPanel = createInfoPanel();
-        gbc.gridx = 0; gbc.gridy = 4; gbc.gridwidth = 2;
+        gbc.gridx = 0; gbc.gridy = 10; gbc.gridwidth = 2;
         settingsPanel.add(infoPanel, gbc);
 
         return settingsPanel;
@@ -254,6 +332,16 @@ public class ImageCreatorGUI extends JFrame {
         btnProcess.addActionListener(e -> processImages());
         buttonPanel.add(btnProcess);
 
+        btnPause = createStyledButton(" Пауза", new Color(120, 120, 120));
+        btnPause.setEnabled(false);
+        btnPause.addActionListener(e -> togglePause());
+        buttonPanel.add(btnPause);
+
+        btnCancel = createStyledButton(" Скасувати", new Color(234, 67, 53));
+        btnCancel.setEnabled(false);
+        btnCancel.addActionListener(e -> cancelProcessing());
+        buttonPanel.add(btnCancel);
+
         btnClear = createStyledButton(" Очистити лог", new Color(234, 67, 53));
         btnClear.addActionListener(e -> clearLog());
         buttonPanel.add(btnClear);
@@ -392,7 +480,7 @@ public class ImageCreatorGUI extends JFrame {
                         dtde.dropComplete(false);
                     }
                 } catch (Exception e) {
-                    txtLog.append("ERROR: Could not process dropped files: " + e.getMessage() + "\n");
+                    logView.append("ERROR: Could not process dropped files: " + e.getMessage() + "\n");
                     dtde.dropComplete(false);
                 }
 
@@ -423,36 +511,85 @@ public class ImageCreatorGUI extends JFrame {
                 List<File> files = (List<File>) contents.getTransferData(DataFlavor.javaFileListFlavor);
                 addFiles(files);
             } else {
-                txtLog.append("Clipboard does not contain files\n");
+                logView.append("Clipboard does not contain files\n");
             }
         } catch (Exception e) {
-            txtLog.append("ERROR: Could not paste from clipboard: " + e.getMessage() + "\n");
+            logView.append("ERROR: Could not paste from clipboard: " + e.getMessage() + "\n");
         }
     }
 
     private void addFiles(List<File> files) {
+        // Папки обходяться рекурсивно у фоновому потоці: великий чи мережевий каталог
+        // не блокує інтерфейс, а знайдені файли з'являються у списку порціями
+        int generation = fileListGeneration;
+        int[] addedCount = {0};
+        activeFileWalks++;
+        updateProcessButtonState();
+        Thread walkerThread = new Thread(() -> {
+            List<File> batch = new ArrayList<>();
+            long flushAt = System.nanoTime() + WALK_BATCH_NANOS;
+            String error = null;
+            try (ImageFileWalker walker = new ImageFileWalker(files)) {
+                while (generation == fileListGeneration && walker.hasNext()) {
+                    batch.add(walker.next());
+                    if (batch.size() >= WALK_BATCH_FILES || System.nanoTime() >= flushAt) {
+                        List<File> chunk = batch;
+                        SwingUtilities.invokeLater(() -> addedCount[0] += addToSelection(chunk, generation));
+                        batch = new ArrayList<>();
+                        flushAt = System.nanoTime() + WALK_BATCH_NANOS;
+                    }
+                }
+            } catch (RuntimeException e) {
+                error = e.getMessage();
+            }
+
+            List<File> rest = batch;
+            String failure = error;
+            SwingUtilities.invokeLater(() -> {
+                addedCount[0] += addToSelection(rest, generation);
+                activeFileWalks--;
+                updateProcessButtonState();
+                if (failure != null) {
+                    logView.append("ERROR: Could not read folders: " + failure + "\n");
+                }
+                if (addedCount[0] > 0) {
+                    logView.append("Added " + addedCount[0] + " file(s)\n");
+                }
+            });
+        }, "file-walker");
+        walkerThread.setDaemon(true);
+        walkerThread.start();
+    }
+
+    /**
+     * Додає порцію знайдених файлів до списку, якщо його не очищено після початку обходу
+     *
+     * @return кількість нових файлів
+     */
+    private int addToSelection(List<File> files, int generation) {
+        if (generation != fileListGeneration) {
+            return 0;
+        }
         int addedCount = 0;
         for (File file : files) {
-            if (isImageFile(file) && !selectedFiles.contains(file)) {
-                selectedFiles.add(file);
+            if (selectedFiles.add(file)) {
                 fileListModel.addElement(file.getName());
                 addedCount++;
             }
         }
-
         if (addedCount > 0) {
             lblSelectedFiles.setText(String.valueOf(selectedFiles.size()));
-            updateProcessButtonState();
-            txtLog.append("Added " + addedCount + " file(s)\n");
         }
+        return addedCount;
     }
 
     private void clearSelectedFiles() {
+        fileListGeneration++;
         selectedFiles.clear();
         fileListModel.clear();
         lblSelectedFiles.setText("0");
         updateProcessButtonState();
-        txtLog.append("Selection cleared\n");
+        logView.append("Selection cleared\n");
     }
 
     private void selectFiles() {
@@ -485,7 +622,7 @@ public class ImageCreatorGUI extends JFrame {
 
             addFiles(newFiles);
 
-            txtLog.append("Files selected via dialog: " + newFiles.size() + "\n");
+            logView.append("Files selected via dialog: " + newFiles.size() + "\n");
         }
     }
 
@@ -508,13 +645,13 @@ public class ImageCreatorGUI extends JFrame {
             txtOutputPath.setToolTipText(outputDirectory.getAbsolutePath());
             updateProcessButtonState();
 
-            txtLog.append("Output folder selected:\n");
-            txtLog.append("   " + outputDirectory.getAbsolutePath() + "\n\n");
+            logView.append("Output folder selected:\n");
+            logView.append("   " + outputDirectory.getAbsolutePath() + "\n\n");
         }
     }
 
     private void updateProcessButtonState() {
-        btnProcess.setEnabled(selectedFiles.size() > 0 && outputDirectory != null);
+        btnProcess.setEnabled(selectedFiles.size() > 0 && outputDirectory != null && activeFileWalks == 0);
     }
 
     private void processImages() {
@@ -530,9 +667,8 @@ public class ImageCreatorGUI extends JFrame {
             return;
         }
 
-        btnProcess.setEnabled(false);
-        btnSelectFiles.setEnabled(false);
-        btnSelectOutput.setEnabled(false);
+        setProcessingControlsEnabled(true);
+        btnPause.setText(" Пауза");
         progressBar.setValue(0);
         progressBar.setString("0%");
         lblStatus.setText("Processing...");
@@ -540,24 +676,40 @@ public class ImageCreatorGUI extends JFrame {
 
         int width = (Integer) spinnerWidth.getValue();
         int height = (Integer) spinnerHeight.getValue();
-        int threads = (Integer) spinnerThreads.getValue();
+        boolean adaptiveThreads = chkAutoThreads.isSelected();
+        int threads = adaptiveThreads ? Runtime.getRuntime().availableProcessors()
+                : (Integer) spinnerThreads.getValue();
         String prefix = txtPrefix.getText();
+        ResampleMode resampleMode = (ResampleMode) comboResample.getSelectedItem();
+        FitMode fitMode = (FitMode) comboFit.getSelectedItem();
+        String format = (String) comboFormat.getSelectedItem();
+        EncoderSettings encoderSettings = FORMAT_AS_SOURCE.equals(format)
+                ? EncoderSettings.DEFAULTS : EncoderSettings.DEFAULTS.withOutputFormat(format);
+        boolean incremental = chkIncremental.isSelected();
+        File cacheDirectory = chkCache.isSelected() ? ThumbnailCache.defaultDirectory() : null;
+        // Перервана обробка тих самих файлів продовжується з контрольної точки
+        File checkpointFile = new File(outputDirectory, JobCheckpoint.DEFAULT_FILE_NAME);
 
         new Thread(() -> {
             try {
                 long startTime = System.currentTimeMillis();
 
-                creator = new ImageCreator(threads, prefix, outputDirectory);
+                creator = new ImageCreator(threads, outputDirectory);
+                creator.setResampleMode(resampleMode);
+                creator.setFitMode(fitMode);
+                creator.setEncoderSettings(encoderSettings);
+                creator.setIncremental(incremental);
+                creator.setCheckpoint(checkpointFile);
+                creator.setCache(cacheDirectory, ThumbnailCache.DEFAULT_CAPACITY);
+                if (adaptiveThreads) {
+                    creator.setAdaptiveThreads(ImageCreator.maxAdaptiveThreads());
+                }
                 File[] filesArray = selectedFiles.toArray(new File[0]);
 
-                // Симуляція прогресу
-                Timer progressTimer = new Timer(100, evt -> {
-                    int current = progressBar.getValue();
-                    if (current < 95) {
-                        progressBar.setValue(current + 1);
-                        progressBar.setString(current + 1 + "%");
-                    }
-                });
+                // Прогрес береться з метрик: завершені, невдалі та пропущені джерела
+                PipelineMetrics metrics = creator.getMetrics();
+                BatchJob job = creator.getJob();
+                Timer progressTimer = new Timer(200, evt -> updateProgress(metrics, job, filesArray.length));
                 progressTimer.start();
 
                 creator.processImages(filesArray, width, height, prefix);
@@ -568,28 +720,38 @@ public class ImageCreatorGUI extends JFrame {
                 long endTime = System.currentTimeMillis();
                 double duration = (endTime - startTime) / 1000.0;
 
+                boolean cancelled = job.isCancelled();
                 final String message = "\n" + "=".repeat(50) + "\n" +
-                        "Processing completed successfully!\n" +
+                        (cancelled ? "Processing cancelled!\n" : "Processing completed successfully!\n") +
                         "Execution time: " + String.format("%.2f", duration) + " sec\n" +
                         "Processed: " + creator.getProcessedCount() + " files\n" +
+                        "Failed: " + creator.getFailedCount() + " files\n" +
+                        metrics.formatSummary() +
                         "Saved to: " + outputDirectory.getName() + "\n" +
                         "=".repeat(50) + "\n\n";
 
                 SwingUtilities.invokeLater(() -> {
-                    txtLog.append(message);
+                    logView.append(message);
+                    setProcessingControlsEnabled(false);
+                    if (cancelled) {
+                        progressBar.setForeground(new Color(234, 67, 53));
+                        lblStatus.setText("Cancelled: run again with the same files to resume");
+                        lblStatus.setForeground(new Color(234, 67, 53));
+                        return;
+                    }
                     progressBar.setValue(100);
                     progressBar.setString("100%");
                     progressBar.setForeground(new Color(52, 168, 83));
                     lblStatus.setText("Completed successfully!");
                     lblStatus.setForeground(new Color(52, 168, 83));
-                    btnProcess.setEnabled(true);
-                    btnSelectFiles.setEnabled(true);
-                    btnSelectOutput.setEnabled(true);
 
                     showStyledMessage(
                             "Processing completed!\n\n" +
                                     "Files processed: " + creator.getProcessedCount() + "\n" +
+                                    "Failed: " + creator.getFailedCount() + "\n" +
                                     "Execution time: " + String.format("%.2f", duration) + " sec\n" +
+                                    String.format("Throughput: %.2f images/sec\n",
+                                            metrics.getImagesPerSecond()) +
                                     "Saved to: " + outputDirectory.getAbsolutePath(),
                             "Success",
                             JOptionPane.INFORMATION_MESSAGE
@@ -598,14 +760,12 @@ public class ImageCreatorGUI extends JFrame {
 
             } catch (Exception e) {
                 SwingUtilities.invokeLater(() -> {
-                    txtLog.append("\nCRITICAL ERROR: " + e.getMessage() + "\n\n");
+                    logView.append("\nCRITICAL ERROR: " + e.getMessage() + "\n\n");
                     progressBar.setString("Error!");
                     progressBar.setForeground(new Color(234, 67, 53));
                     lblStatus.setText("Processing error");
                     lblStatus.setForeground(new Color(234, 67, 53));
-                    btnProcess.setEnabled(true);
-                    btnSelectFiles.setEnabled(true);
-                    btnSelectOutput.setEnabled(true);
+                    setProcessingControlsEnabled(false);
 
                     showStyledMessage(
                             "Processing error:\n\n" + e.getMessage(),
@@ -617,6 +777,65 @@ public class ImageCreatorGUI extends JFrame {
         }).start();
     }
 
+    /**
+     * Кнопки вибору файлів доступні між обробками, пауза і скасування — лише під час неї
+     */
+    private void setProcessingControlsEnabled(boolean processing) {
+        btnProcess.setEnabled(!processing);
+        btnSelectFiles.setEnabled(!processing);
+        btnSelectOutput.setEnabled(!processing);
+        btnPause.setEnabled(processing);
+        btnCancel.setEnabled(processing);
+    }
+
+    private void togglePause() {
+        ImageCreator current = creator;
+        if (current == null) {
+            return;
+        }
+        BatchJob job = current.getJob();
+        if (job.getState() == BatchJob.State.PAUSED) {
+            job.resume();
+            btnPause.setText(" Пауза");
+        } else {
+            job.pause();
+            btnPause.setText(" Продовжити");
+        }
+    }
+
+    /**
+     * Скасовує обробку: файли, що вже записуються, буде дописано,
+     * решта лишиться для наступного запуску
+     */
+    private void cancelProcessing() {
+        ImageCreator current = creator;
+        if (current == null) {
+            return;
+        }
+        current.getJob().cancel();
+        btnPause.setEnabled(false);
+        btnCancel.setEnabled(false);
+        lblStatus.setText("Cancelling...");
+    }
+
+    /**
+     * Оновлює прогрес-бар і статус за реальними метриками обробки
+     */
+    private void updateProgress(PipelineMetrics metrics, BatchJob job, int total) {
+        long done = metrics.getCompleted() + metrics.getFailed() + metrics.getSkipped();
+        int percent = total > 0 ? (int) Math.min(100, done * 100 / total) : 0;
+        progressBar.setValue(percent);
+        progressBar.setString(percent + "%");
+        String state = switch (job.getState()) {
+            case RUNNING -> "Processing...";
+            case PAUSED -> "Paused";
+            case CANCELLED -> "Cancelling...";
+        };
+        lblStatus.setText(String.format("%s %d/%d (%d in progress, %.1f img/s, %d threads)",
+                state, done, total, metrics.getInFlight(), metrics.getImagesPerSecond(),
+                metrics.getWorkerThreads()));
+    }
+
     private void clearLog() {
         txtLog.setText("");
         progressBar.setValue(0);
@@ -639,36 +858,12 @@ public class ImageCreatorGUI extends JFrame {
                 name.endsWith(".bmp");
     }
 
-    private void redirectSystemOut() {
-        try {
-            PrintStream printStream = new PrintStream(new java.io.OutputStream() {
-                private final StringBuilder buffer = new StringBuilder();
-
-                @Override
-                public void write(int b) {
-                    buffer.append((char) b);
-                    if (b == '\n') {
-                        flush();
-                    }
-                }
-
-                @Override
-                public void flush() {
-                    if (buffer.length() > 0) {
-                        final String text = buffer.toString();
-                        SwingUtilities.invokeLater(() -> {
-                            txtLog.append(text);
-                            txtLog.setCaretPosition(txtLog.getDocument().getLength());
-                        });
-                        buffer.setLength(0);
-                    }
-                }
-            }, true, "UTF-8");
-
-            System.setOut(printStream);
-            System.setErr(printStream);
-        } catch (Exception e) {
-            System.err.println("Could not configure output redirection: " + e.getMessage());
-        }
+    /**
+     * Підключає вікно журналу до асинхронного Log: рядки надходять пакетами,
+     * а у вікні зберігаються лише останні MAX_LOG_LINES
+     */
+    private void installLogView() {
+        logView = new LogView(txtLog, MAX_LOG_LINES);
+        Log.addSink(logView);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,493 @@
+package imagecreator;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.event.IIOReadUpdateListener;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.Raster;
+import java.awt.image.SampleModel;
+import java.awt.image.WritableRaster;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+
+/**
+ * Клас для декодування зображень з урахуванням цільового розміру
+ */
+public final class ImageDecoder {
+    /**
+     * Мінімальний запас роздільної здатності відносно цільового розміру,
+     * який залишається для фінального якісного масштабування
+     */
+    static final int QUALITY_OVERSAMPLE = 2;
+
+    /** Декодований растр від цієї кількості пікселів декодується смугами */
+    static final long BAND_THRESHOLD_PIXELS = 32L * 1024 * 1024;
+    /** Найбільша кількість пікселів однієї смуги */
+    static final long MAX_BAND_PIXELS = 16L * 1024 * 1024;
+    /** На скільки смуг ділиться растр, якщо смуги вміщуються в MAX_BAND_PIXELS */
+    private static final int TARGET_BANDS = 8;
+
+    private ImageDecoder() {
+    }
+
+    /**
+     * Декодує вміст файлу з пропуском пікселів (subsampling), якщо джерело значно
+     * більше за цільовий розмір. Результат завжди щонайменше у QUALITY_OVERSAMPLE
+     * разів більший за ціль, щоб фінальний прохід масштабування не втрачав якість.
+     */
+    public static BufferedImage decode(ByteBuffer data, int targetWidth, int targetHeight) throws IOException {
+        return decode(data, forTarget(targetWidth, targetHeight));
+    }
+
+    /**
+     * Декодує частину джерела, яку обирає planner за розмірами із заголовка.
+     * Пікселі поза областю не декодуються.
+     */
+    public static BufferedImage decode(ByteBuffer data, Planner planner) throws IOException {
+        try (ImageInputStream input = new ByteBufferImageInputStream(data)) {
+            return decode(input, planner);
+        }
+    }
+
+    /**
+     * Чи декодувати растр decodedWidth x decodedHeight смугами, а не цілком
+     */
+    public static boolean needsBands(long decodedWidth, long decodedHeight) {
+        return decodedWidth * decodedHeight > BAND_THRESHOLD_PIXELS;
+    }
+
+    /**
+     * Висота смуги в декодованих рядках. Якщо декодер не може віддати рядки за один
+     * прохід (див. decodeBands), для кожної смуги файл розбирається заново від початку,
+     * тому смуг небагато — TARGET_BANDS, якщо кожна вміщується в MAX_BAND_PIXELS,
+     * інакше стільки, скільки потрібно
+     */
+    public static int bandRows(int decodedWidth, int decodedHeight) {
+        int rows = (decodedHeight + TARGET_BANDS - 1) / TARGET_BANDS;
+        int limit = (int) Math.max(1, MAX_BAND_PIXELS / Math.max(1, decodedWidth));
+        return Math.max(1, Math.min(rows, limit));
+    }
+
+    /**
+     * Декодує область джерела горизонтальними смугами і передає кожну consumer.
+     * У пам'яті одночасно лише одна смуга; її буфер перевикористовується, тому
+     * consumer не повинен зберігати посилання на нього. Пікселі смуг збігаються
+     * з відповідними рядками декодування цілком.
+     * <p>
+     * JPEG без прогресивного кодування та PNG без черезрядковості декодуються одним
+     * викликом read: декодер пише рядки по колу в буфер смуги, а заповнена смуга
+     * передається consumer до того, як її почнуть перезаписувати. Решта джерел
+     * читається окремим read для кожної смуги (setSourceRegion).
+     */
+    public static void decodeBands(ByteBuffer data, Region region, BandConsumer consumer) throws IOException {
+        try (ImageInputStream input = new ByteBufferImageInputStream(data)) {
+            String format = detectFormat(input);
+            ImageReader reader = openReader(input, format);
+            if (reader == null) {
+                throw new IOException("Unsupported or corrupted image");
+            }
+
+            boolean completed = false;
+            BufferedImage buffer = null;
+            try {
+                // Окремі смуги читають зображення 0 заново, тож потік має дозволяти повернення назад
+                reader.setInput(input, false, true);
+                Rectangle area = region.getSourceRegion() != null ? region.getSourceRegion()
+                        : new Rectangle(0, 0, reader.getWidth(0), reader.getHeight(0));
+                int step = region.getStep();
+                int decodedWidth = (area.width + step - 1) / step;
+                int decodedHeight = (area.height + step - 1) / step;
+                int bandRows = bandRows(decodedWidth, decodedHeight);
+                int type = destinationType(reader);
+                if (type != BufferedImage.TYPE_CUSTOM) {
+                    buffer = RasterPool.acquire(decodedWidth, bandRows, type);
+                }
+
+                BufferedImage ring = buffer != null && isSinglePass(data, format)
+                        ? bandRing(buffer, decodedWidth, decodedHeight) : null;
+                if (ring != null) {
+                    ImageReadParam param = readParam(reader, area, step);
+                    param.setDestination(ring);
+                    BandListener listener = new BandListener(buffer, consumer);
+                    reader.addIIOReadUpdateListener(listener);
+                    try {
+                        reader.read(0, param);
+                    } finally {
+                        reader.removeIIOReadUpdateListener(listener);
+                    }
+                    listener.finish();
+                } else {
+                    for (int row = 0; row < decodedHeight; row += bandRows) {
+                        int rows = Math.min(bandRows, decodedHeight - row);
+                        // Початок смуги кратний кроку, тож subsampling бере ті самі рядки, що й без смуг
+                        int top = area.y + row * step;
+                        ImageReadParam param = readParam(reader, new Rectangle(area.x, top, area.width,
+                                Math.min(rows * step, area.y + area.height - top)), step);
+                        if (buffer != null) {
+                            param.setDestination(buffer);
+                        }
+                        consumer.accept(reader.read(0, param), row, rows);
+                    }
+                }
+                completed = true;
+            } finally {
+                RasterPool.release(buffer);
+                closeReader(format, reader, completed);
+            }
+        }
+    }
+
+    /**
+     * Читає вміст файлу для декодування в буфер з ContentPool. Файл після читання
+     * закривається й не лишається відображеним у пам'ять, тож його можна одразу
+     * перемістити чи видалити. Буфер повертається через releaseContent.
+     */
+    public static ByteBuffer readContent(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("File is too large: " + file.getName());
+            }
+            ByteBuffer data = ContentPool.acquire((int) size);
+            try {
+                while (data.hasRemaining() && channel.read(data) >= 0) {
+                    // Читання до кінця файлу
+                }
+            } catch (IOException | RuntimeException e) {
+                ContentPool.release(data);
+                throw e;
+            }
+            return data.flip();
+        }
+    }
+
+    /**
+     * Повертає в пул вміст, прочитаний readContent; після виклику його не можна використовувати
+     */
+    public static void releaseContent(ByteBuffer data) {
+        ContentPool.release(data);
+    }
+
+    private static Planner forTarget(int targetWidth, int targetHeight) {
+        return (sourceWidth, sourceHeight) -> new Region(null,
+                subsamplingStep(sourceWidth, sourceHeight, targetWidth, targetHeight));
+    }
+
+    private static ImageReadParam readParam(ImageReader reader, Rectangle sourceRegion, int step) {
+        ImageReadParam param = reader.getDefaultReadParam();
+        param.setSourceRegion(sourceRegion);
+        if (step > 1) {
+            param.setSourceSubsampling(step, step, 0, 0);
+        }
+        return param;
+    }
+
+    /**
+     * Чи декодер формату віддає рядки джерела згори донизу за один прохід
+     */
+    private static boolean isSinglePass(ByteBuffer data, String format) {
+        if (!"jpeg".equals(format) && !"png".equals(format)) {
+            return false;
+        }
+        ImageHeader header = ImageHeader.parse(data);
+        return header != null && !header.isInterlaced();
+    }
+
+    /**
+     * Зображення розміром з усю декодовану область поверх буфера смуги band:
+     * рядок y потрапляє в рядок y % висота смуги
+     *
+     * @return null, якщо розкладка буфера не дозволяє такого відображення
+     */
+    private static BufferedImage bandRing(BufferedImage band, int width, int height) {
+        DataBuffer rows = band.getRaster().getDataBuffer();
+        if (rows.getNumBanks() != 1 || rows.getOffset() != 0 || rows.getSize() % band.getHeight() != 0) {
+            return null;
+        }
+        long size = (long) rows.getSize() / band.getHeight() * height;
+        if (size > Integer.MAX_VALUE) {
+            return null;
+        }
+        SampleModel layout = band.getSampleModel().createCompatibleSampleModel(width, height);
+        WritableRaster raster = Raster.createWritableRaster(layout, new RingDataBuffer(rows, (int) size), null);
+        return new BufferedImage(band.getColorModel(), raster, band.isAlphaPremultiplied(), null);
+    }
+
+    private static BufferedImage decode(ImageInputStream input, Planner planner) throws IOException {
+        if (input == null) {
+            throw new IOException("Cannot open image stream");
+        }
+
+        String format = detectFormat(input);
+        ImageReader reader = openReader(input, format);
+        if (reader == null) {
+            throw new IOException("Unsupported or corrupted image");
+        }
+
+        boolean completed = false;
+        BufferedImage destination = null;
+        try {
+            reader.setInput(input, true, true);
+
+            int sourceWidth = reader.getWidth(0);
+            int sourceHeight = reader.getHeight(0);
+            Region plan = planner.plan(sourceWidth, sourceHeight);
+
+            ImageReadParam param = reader.getDefaultReadParam();
+            Rectangle area = plan.getSourceRegion() != null
+                    ? plan.getSourceRegion() : new Rectangle(0, 0, sourceWidth, sourceHeight);
+            if (plan.getSourceRegion() != null) {
+                param.setSourceRegion(area);
+            }
+            int step = plan.getStep();
+            if (step > 1) {
+                param.setSourceSubsampling(step, step, 0, 0);
+            }
+
+            // Декодування у буфер з RasterPool, якщо декодер підтримує стандартний тип
+            int type = destinationType(reader);
+            if (type != BufferedImage.TYPE_CUSTOM) {
+                int decodedWidth = (area.width + step - 1) / step;
+                int decodedHeight = (area.height + step - 1) / step;
+                destination = RasterPool.acquire(decodedWidth, decodedHeight, type);
+                param.setDestination(destination);
+            }
+
+            BufferedImage image = reader.read(0, param);
+            completed = true;
+            return image;
+        } finally {
+            if (!completed) {
+                RasterPool.release(destination);
+            }
+            closeReader(format, reader, completed);
+        }
+    }
+
+    /**
+     * Формат джерела за сигнатурою; позиція потоку не змінюється
+     */
+    private static String detectFormat(ImageInputStream input) throws IOException {
+        byte[] header = new byte[4];
+        input.mark();
+        int read = 0;
+        int count;
+        while (read < header.length && (count = input.read(header, read, header.length - read)) > 0) {
+            read += count;
+        }
+        input.reset();
+        return ImageCodecs.formatOf(header, read);
+    }
+
+    /**
+     * Декодер з кешу потоку для відомої сигнатури, інакше пошук серед усіх
+     * зареєстрованих декодерів (TIFF, WBMP...)
+     *
+     * @return декодер або null, якщо формат не підтримується
+     */
+    private static ImageReader openReader(ImageInputStream input, String format) {
+        if (format != null) {
+            ImageReader reader = ImageCodecs.acquireReader(format);
+            if (reader != null) {
+                return reader;
+            }
+        }
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+        return readers.hasNext() ? readers.next() : null;
+    }
+
+    private static void closeReader(String format, ImageReader reader, boolean reusable) {
+        if (format != null) {
+            ImageCodecs.releaseReader(format, reader, reusable);
+        } else {
+            reader.dispose();
+        }
+    }
+
+    /**
+     * Тип буфера для декодування: TYPE_INT_RGB, якщо декодер його пропонує (тоді
+     * масштабуванню не потрібна конвертація), інакше власний тип декодера за
+     * замовчуванням. TYPE_CUSTOM означає, що буфер створює сам декодер.
+     */
+    private static int destinationType(ImageReader reader) throws IOException {
+        Iterator<ImageTypeSpecifier> types = reader.getImageTypes(0);
+        int first = BufferedImage.TYPE_CUSTOM;
+        boolean firstSeen = false;
+        while (types.hasNext()) {
+            int type = types.next().getBufferedImageType();
+            if (type == BufferedImage.TYPE_INT_RGB) {
+                return type;
+            }
+            if (!firstSeen) {
+                first = type;
+                firstSeen = true;
+            }
+        }
+        return first;
+    }
+
+    /**
+     * Обчислює найбільший крок subsampling, при якому декодоване зображення
+     * все ще покриває цільовий розмір із запасом QUALITY_OVERSAMPLE
+     */
+    static int subsamplingStep(int sourceWidth, int sourceHeight, int targetWidth, int targetHeight) {
+        int stepX = sourceWidth / (targetWidth * QUALITY_OVERSAMPLE);
+        int stepY = sourceHeight / (targetHeight * QUALITY_OVERSAMPLE);
+        return Math.max(1, Math.min(stepX, stepY));
+    }
+
+    /**
+     * Отримує смуги від decodeBands згори донизу
+     */
+    @FunctionalInterface
+    public interface BandConsumer {
+        /**
+         * @param band     рядки смуги, починаючи з верхнього (буфер може бути вищим за rows)
+         * @param firstRow номер першого рядка смуги в декодованій області
+         * @param rows     кількість рядків смуги
+         */
+        void accept(BufferedImage band, int firstRow, int rows) throws IOException;
+    }
+
+    /**
+     * Передає consumer смуги, які декодер записав у кільцевий буфер. Помилка consumer
+     * перериває читання (abort) і викидається з finish().
+     */
+    private static final class BandListener implements IIOReadUpdateListener {
+        private final BufferedImage band;
+        private final BandConsumer consumer;
+        /** Рядків декодовано / передано consumer */
+        private int decoded;
+        private int delivered;
+        private Exception failure;
+
+        BandListener(BufferedImage band, BandConsumer consumer) {
+            this.band = band;
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void imageUpdate(ImageReader source, BufferedImage image, int minX, int minY, int width, int height,
+                                int periodX, int periodY, int[] bands) {
+            if (failure != null) {
+                return;
+            }
+            try {
+                // Рядок поза поточною смугою означав би, що непередані рядки вже перезаписано
+                if (minY != decoded || minY + height > delivered + band.getHeight()) {
+                    throw new IOException("Decoder returned rows out of order");
+                }
+                decoded = minY + height;
+                if (decoded - delivered == band.getHeight()) {
+                    consumer.accept(band, delivered, band.getHeight());
+                    delivered = decoded;
+                }
+            } catch (IOException | RuntimeException e) {
+                failure = e;
+                source.abort();
+            }
+        }
+
+        /**
+         * Передає останню неповну смугу або викидає помилку consumer
+         */
+        void finish() throws IOException {
+            if (failure instanceof IOException e) {
+                throw e;
+            }
+            if (failure instanceof RuntimeException e) {
+                throw e;
+            }
+            if (decoded > delivered) {
+                consumer.accept(band, delivered, decoded - delivered);
+                delivered = decoded;
+            }
+        }
+
+        @Override
+        public void passStarted(ImageReader source, BufferedImage image, int pass, int minPass, int maxPass,
+                                int minX, int minY, int periodX, int periodY, int[] bands) {
+        }
+
+        @Override
+        public void passComplete(ImageReader source, BufferedImage image) {
+        }
+
+        @Override
+        public void thumbnailPassStarted(ImageReader source, BufferedImage thumbnail, int pass, int minPass,
+                                         int maxPass, int minX, int minY, int periodX, int periodY, int[] bands) {
+        }
+
+        @Override
+        public void thumbnailUpdate(ImageReader source, BufferedImage thumbnail, int minX, int minY, int width,
+                                    int height, int periodX, int periodY, int[] bands) {
+        }
+
+        @Override
+        public void thumbnailPassComplete(ImageReader source, BufferedImage thumbnail) {
+        }
+    }
+
+    /**
+     * DataBuffer висотою в усю декодовану область, що зберігає лише рядки однієї
+     * смуги: елемент i потрапляє в елемент i % розмір буфера смуги
+     */
+    private static final class RingDataBuffer extends DataBuffer {
+        private final DataBuffer rows;
+        private final int rowsSize;
+
+        RingDataBuffer(DataBuffer rows, int size) {
+            super(rows.getDataType(), size);
+            this.rows = rows;
+            this.rowsSize = rows.getSize();
+        }
+
+        @Override
+        public int getElem(int bank, int i) {
+            return rows.getElem(bank, i % rowsSize);
+        }
+
+        @Override
+        public void setElem(int bank, int i, int val) {
+            rows.setElem(bank, i % rowsSize, val);
+        }
+    }
+
+    /**
+     * Обирає область і крок subsampling за розмірами джерела із заголовка
+     */
+    @FunctionalInterface
+    public interface Planner {
+        Region plan(int sourceWidth, int sourceHeight) throws IOException;
+    }
+
+    /**
+     * Що саме декодувати: прямокутник джерела (null — усе зображення) та крок subsampling
+     */
+    public static final class Region {
+        private final Rectangle sourceRegion;
+        private final int step;
+
+        public Region(Rectangle sourceRegion, int step) {
+            this.sourceRegion = sourceRegion;
+            this.step = Math.max(1, step);
+        }
+
+        public Rectangle getSourceRegion() {
+            return sourceRegion;
+        }
+
+        public int getStep() {
+            return step;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package imagecreator;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageOutputStream;
+import org.w3c.dom.NodeList;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Клас для запису зображень з налаштуваннями кодувальника
+ */
+public final class ImageEncoder {
+
+    private ImageEncoder() {
+    }
+
+    /**
+     * Записує зображення у файл заданого формату
+     *
+     * @param quality якість стиснення 0..1 або від'ємне значення для налаштувань за замовчуванням
+     */
+    public static void write(BufferedImage image, String format, float quality, File outputFile)
+            throws IOException {
+        write(image, format, quality, EncoderSettings.DEFAULTS, outputFile);
+    }
+
+    /**
+     * Записує зображення у файл з налаштуваннями кодувальника задачі
+     */
+    public static void write(BufferedImage image, String format, float quality, EncoderSettings settings,
+                             File outputFile) throws IOException {
+        // Кодування в пам'ять і один запис у канал замість дрібних записів FileImageOutputStream
+        writeFile(encode(image, format, quality, settings), outputFile.toPath());
+    }
+
+    /**
+     * Записує закодовані байти у файл через канал, замінюючи попередній вміст
+     */
+    public static void writeFile(ByteBuffer data, Path file) throws IOException {
+        ByteBuffer remaining = data.duplicate();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (remaining.hasRemaining()) {
+                channel.write(remaining);
+            }
+        }
+    }
+
+    /**
+     * Кодує зображення в пам'ять, щоб запис на диск виконав окремий етап вводу-виводу
+     */
+    public static ByteBuffer encode(BufferedImage image, String format, float quality) throws IOException {
+        return encode(image, format, quality, EncoderSettings.DEFAULTS);
+    }
+
+    /**
+     * Кодує зображення в пам'ять з налаштуваннями кодувальника задачі
+     *
+     * @param quality якість варіанта; якщо від'ємна, береться якість із settings
+     * @return закодовані байти (лише для читання)
+     */
+    public static ByteBuffer encode(BufferedImage image, String format, float quality, EncoderSettings settings)
+            throws IOException {
+        ByteArrayImageOutputStream output = new ByteArrayImageOutputStream(expectedSize(image, format));
+        try (output) {
+            write(image, format, quality, settings, output);
+        }
+        return output.toByteBuffer();
+    }
+
+    private static void write(BufferedImage image, String format, float quality, EncoderSettings settings,
+                              ImageOutputStream output) throws IOException {
+        if (quality < 0) {
+            quality = settings.compressionQuality(format);
+        }
+        ImageWriter writer = ImageCodecs.acquireWriter(format);
+        if (writer == null) {
+            throw new IOException("No writer for format: " + format);
+        }
+
+        boolean completed = false;
+        try {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (quality >= 0 && param.canWriteCompressed()) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                if (param.getCompressionType() == null && param.getCompressionTypes() != null) {
+                    param.setCompressionType(param.getCompressionTypes()[0]);
+                }
+                param.setCompressionQuality(quality);
+            }
+
+            IIOMetadata metadata = null;
+            if (EncoderSettings.isJpeg(format)) {
+                if (settings.isProgressive() && param.canWriteProgressive()) {
+                    param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+                }
+                if (settings.getChromaSubsampling() != null) {
+                    metadata = jpegMetadata(writer, image, param, settings.getChromaSubsampling());
+                }
+            }
+
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, metadata), param);
+            completed = true;
+        } finally {
+            // Кодувальник повертається в кеш потоку для наступного варіанта того ж формату
+            ImageCodecs.releaseWriter(format, writer, completed);
+        }
+    }
+
+    /**
+     * Початковий розмір буфера результату: JPEG зазвичай стискає до ~0.5 байта на
+     * піксель, формати без втрат беруться з запасом — буфер однаково росте при потребі
+     */
+    private static int expectedSize(BufferedImage image, String format) {
+        long pixels = (long) image.getWidth() * image.getHeight();
+        long bytes = EncoderSettings.isJpeg(format) ? pixels / 2 : pixels * 3 + 1024;
+        return (int) Math.min(bytes, 64L * 1024 * 1024);
+    }
+
+    /**
+     * Метадані JPEG із заданими коефіцієнтами вибірки: субдискретизацію кольоровості
+     * визначає лише компонента яскравості (перша), решта завжди 1x1
+     */
+    private static IIOMetadata jpegMetadata(ImageWriter writer, BufferedImage image, ImageWriteParam param,
+                                            EncoderSettings.ChromaSubsampling subsampling) throws IOException {
+        IIOMetadata metadata = writer.getDefaultImageMetadata(
+                ImageTypeSpecifier.createFromRenderedImage(image), param);
+        String formatName = metadata.getNativeMetadataFormatName();
+        IIOMetadataNode root = (IIOMetadataNode) metadata.getAsTree(formatName);
+        NodeList components = root.getElementsByTagName("componentSpec");
+        if (components.getLength() < 3) {
+            // Відтінки сірого: кольоровості немає
+            return null;
+        }
+        for (int i = 0; i < components.getLength(); i++) {
+            IIOMetadataNode component = (IIOMetadataNode) components.item(i);
+            component.setAttribute("HsamplingFactor", String.valueOf(i == 0 ? subsampling.getHorizontal() : 1));
+            component.setAttribute("VsamplingFactor", String.valueOf(i == 0 ? subsampling.getVertical() : 1));
+        }
+        metadata.setFromTree(formatName, root);
+        return metadata;
+    }
+}
@@ -0,0 +1,262 @@
+package imagecreator;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Потоковий обхід вхідних шляхів: директорії читаються ліниво по одній,
+ * тому перші файли віддаються одразу, без побудови повного списку
+ */
+public class ImageFileWalker implements Iterator<File>, AutoCloseable {
+
+    /**
+     * Спосіб розпізнавання зображень
+     */
+    public enum Detection {
+        /** За розширенням файлу (.jpg, .png, .gif, .bmp) */
+        EXTENSION,
+        /** За сигнатурою перших байтів файлу */
+        MAGIC
+    }
+
+    private final Deque<String> pendingInputs;
+    private final Detection detection;
+    /** Відвідані файли; потрібні лише коли вхідних шляхів кілька і вони можуть перетинатися */
+    private final Set<Path> seen;
+    /** Піддиректорії, які не обходяться (вихідна директорія, кеш), абсолютні й нормалізовані */
+    private final List<Path> excluded;
+
+    private final Deque<DirectoryStream<Path>> openStreams = new ArrayDeque<>();
+    private final Deque<Iterator<Path>> directories = new ArrayDeque<>();
+    private PathMatcher matcher;
+    private File next;
+
+    /**
+     * @param excluded директорії, що пропускаються під час обходу разом із вмістом
+     *                 (щоб результати попереднього запуску у вихідній директорії
+     *                 всередині вхідної не оброблялися як нові джерела)
+     * @throws IOException якщо вхідна директорія чи основа шаблону лежить у виключеній
+     *                     директорії (як і для FolderWatcher)
+     */
+    public ImageFileWalker(List<String> inputs, Detection detection, List<File> excluded) throws IOException {
+        this(detection, inputs, normalize(excluded));
+        for (String input : inputs) {
+            Path root = rootOf(input);
+            if (Files.isDirectory(root) && isInside(root, this.excluded)) {
+                throw new IOException("Input directory is inside the output or cache directory: " + root);
+            }
+        }
+    }
+
+    public ImageFileWalker(List<File> inputs) {
+        this(Detection.EXTENSION, toPaths(inputs), List.of());
+    }
+
+    private ImageFileWalker(Detection detection, List<String> inputs, List<Path> excluded) {
+        this.pendingInputs = new ArrayDeque<>(inputs);
+        this.detection = detection;
+        this.seen = inputs.size() > 1 ? new HashSet<>() : null;
+        this.excluded = excluded;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            next = advance();
+        }
+        return next != null;
+    }
+
+    @Override
+    public File next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        File result = next;
+        next = null;
+        return result;
+    }
+
+    private File advance() {
+        while (true) {
+            if (!directories.isEmpty()) {
+                Iterator<Path> entries = directories.peek();
+                Path path;
+                try {
+                    if (!entries.hasNext()) {
+                        closeCurrentDirectory();
+                        continue;
+                    }
+                    path = entries.next();
+                } catch (DirectoryIteratorException e) {
+                    Log.warn("Cannot read directory entry: " + e.getCause().getMessage());
+                    closeCurrentDirectory();
+                    continue;
+                }
+
+                if (Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                    if (!isInside(path, excluded)) {
+                        openDirectory(path);
+                    }
+                } else if ((matcher == null || matcher.matches(path)) && accept(path)) {
+                    return path.toFile();
+                }
+                continue;
+            }
+
+            String input = pendingInputs.poll();
+            if (input == null) {
+                return null;
+            }
+            File file = startInput(input);
+            if (file != null) {
+                return file;
+            }
+        }
+    }
+
+    /**
+     * Починає обхід чергового вхідного шляху. Окремий файл повертається одразу.
+     */
+    private File startInput(String input) {
+        matcher = null;
+
+        if (isGlob(input)) {
+            Path pattern = Paths.get(input).toAbsolutePath();
+            matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+            openDirectory(rootOf(input));
+            return null;
+        }
+
+        Path path = Paths.get(input).toAbsolutePath();
+        if (Files.isDirectory(path)) {
+            openDirectory(path);
+            return null;
+        }
+        if (Files.isRegularFile(path)) {
+            return accept(path) ? path.toFile() : null;
+        }
+
+        Log.warn("No such file or directory: " + input);
+        return null;
+    }
+
+    private void openDirectory(Path directory) {
+        try {
+            DirectoryStream<Path> stream = Files.newDirectoryStream(directory);
+            openStreams.push(stream);
+            directories.push(stream.iterator());
+        } catch (IOException e) {
+            Log.warn("Cannot read directory " + directory + ": " + e.getMessage());
+        }
+    }
+
+    private void closeCurrentDirectory() {
+        directories.pop();
+        try {
+            openStreams.pop().close();
+        } catch (IOException e) {
+            // Помилка закриття не впливає на обхід
+        }
+    }
+
+    private boolean accept(Path path) {
+        // Незавершені результати іншої обробки, що пише в цю директорію
+        if (path.getFileName().toString().startsWith(OutputCommitter.TEMP_PREFIX)
+                || !Files.isRegularFile(path)) {
+            return false;
+        }
+        boolean image = detection == Detection.MAGIC
+                ? hasImageSignature(path)
+                : hasImageExtension(path.getFileName().toString());
+        if (!image) {
+            return false;
+        }
+        return seen == null || seen.add(path.normalize());
+    }
+
+    @Override
+    public void close() {
+        while (!directories.isEmpty()) {
+            closeCurrentDirectory();
+        }
+        pendingInputs.clear();
+    }
+
+    public static boolean hasImageExtension(String fileName) {
+        String name = fileName.toLowerCase();
+        return name.endsWith(".jpg") || name.endsWith(".jpeg") ||
+                name.endsWith(".png") || name.endsWith(".gif") ||
+                name.endsWith(".bmp");
+    }
+
+    /**
+     * Перевіряє сигнатуру JPEG, PNG, GIF або BMP у перших байтах файлу
+     */
+    public static boolean hasImageSignature(Path path) {
+        byte[] header = new byte[4];
+        int read;
+        try (InputStream in = Files.newInputStream(path)) {
+            read = in.readNBytes(header, 0, header.length);
+        } catch (IOException e) {
+            return false;
+        }
+        return ImageCodecs.formatOf(header, read) != null;
+    }
+
+    /**
+     * Чи лежить шлях у одній із директорій (або збігається з нею)
+     *
+     * @param directories абсолютні нормалізовані шляхи
+     */
+    static boolean isInside(Path path, List<Path> directories) {
+        Path normalized = path.toAbsolutePath().normalize();
+        for (Path directory : directories) {
+            if (normalized.startsWith(directory)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static List<Path> normalize(List<File> directories) {
+        List<Path> paths = new ArrayList<>(directories.size());
+        for (File directory : directories) {
+            paths.add(directory.toPath().toAbsolutePath().normalize());
+        }
+        return paths;
+    }
+
+    /**
+     * Директорія, з якої починається обхід вхідного шляху: для шаблону — його
+     * частина до першого сегмента з метасимволами, інакше сам шлях
+     */
+    private static Path rootOf(String input) {
+        Path path = Paths.get(input).toAbsolutePath();
+        if (!isGlob(input)) {
+            return path;
+        }
+        Path base = path.getRoot();
+        for (Path segment : path) {
+            if (isGlob(segment.toString())) break;
+            base = base == null ? segment : base.resolve(segment);
+        }
+        return base;
+    }
+
+    private static boolean isGlob(String value) {
+        return value.indexOf('*') >= 0 || value.indexOf('?') >= 0 ||
+                value.indexOf('[') >= 0 || value.indexOf('{') >= 0;
+    }
+
+    private static List<String> toPaths(List<File> files) {
+        List<String> paths = new ArrayList<>(files.size());
+        for (File file : files) {
+            paths.add(file.getPath());
+        }
+        return paths;
+    }
+}
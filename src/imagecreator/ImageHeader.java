@@ -0,0 +1,296 @@
+package imagecreator;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Метадані з заголовка файлу без декодування пікселів: формат, розміри збереженого
+ * растра, орієнтація EXIF і чи рядки збережені кількома проходами. Розбір JPEG, PNG, GIF і BMP читає лише перші кілобайти
+ * (у JPEG сегменти до SOF пропускаються за їхніми довжинами).
+ */
+public final class ImageHeader {
+    /** Скільки байтів читається з файлу одразу; решта JPEG — окремими читаннями */
+    private static final int PREFIX_BYTES = 16 * 1024;
+
+    private final String format;
+    private final int width;
+    private final int height;
+    private final Orientation orientation;
+    private final boolean interlaced;
+
+    private ImageHeader(String format, int width, int height, Orientation orientation, boolean interlaced) {
+        this.format = format;
+        this.width = width;
+        this.height = height;
+        this.orientation = orientation;
+        this.interlaced = interlaced;
+    }
+
+    /**
+     * Читає заголовок файлу
+     *
+     * @return заголовок або null, якщо формат не розпізнано чи заголовок пошкоджений
+     */
+    public static ImageHeader read(File file) {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            return parse(new FileSource(channel));
+        } catch (IOException | IndexOutOfBoundsException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Розбирає заголовок вмісту, вже прочитаного в пам'ять
+     *
+     * @return заголовок або null, якщо формат не розпізнано чи заголовок пошкоджений
+     */
+    public static ImageHeader parse(ByteBuffer data) {
+        try {
+            return parse(new BufferSource(data.slice()));
+        } catch (IOException | IndexOutOfBoundsException e) {
+            return null;
+        }
+    }
+
+    private static ImageHeader parse(Source source) throws IOException {
+        ByteBuffer start = source.read(0, 29);
+        byte[] signature = new byte[Math.min(4, start.remaining())];
+        start.get(0, signature);
+        String format = ImageCodecs.formatOf(signature, signature.length);
+        if (format == null) {
+            return null;
+        }
+        return switch (format) {
+            case "jpeg" -> parseJpeg(source);
+            case "png" -> parsePng(start);
+            case "gif" -> parseGif(start);
+            case "bmp" -> parseBmp(start);
+            default -> null;
+        };
+    }
+
+    private static ImageHeader header(String format, int width, int height) {
+        return width > 0 && height > 0 ? new ImageHeader(format, width, height, Orientation.NORMAL, false) : null;
+    }
+
+    /**
+     * PNG: розміри й метод черезрядковості з IHDR (1 — Adam7)
+     */
+    private static ImageHeader parsePng(ByteBuffer start) {
+        if (start.remaining() < 29) {
+            return null;
+        }
+        int width = start.getInt(16);
+        int height = start.getInt(20);
+        return width > 0 && height > 0
+                ? new ImageHeader("png", width, height, Orientation.NORMAL, start.get(28) != 0) : null;
+    }
+
+    /**
+     * GIF: логічний розмір екрана, little-endian
+     */
+    private static ImageHeader parseGif(ByteBuffer start) {
+        if (start.remaining() < 10) {
+            return null;
+        }
+        ByteBuffer le = start.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        return header("gif", le.getShort(6) & 0xFFFF, le.getShort(8) & 0xFFFF);
+    }
+
+    /**
+     * BMP: BITMAPCOREHEADER (12 байтів, 16-бітні розміри) або новіші заголовки
+     * з 32-бітними; від'ємна висота означає рядки згори донизу
+     */
+    private static ImageHeader parseBmp(ByteBuffer start) {
+        if (start.remaining() < 26) {
+            return null;
+        }
+        ByteBuffer le = start.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        int headerSize = le.getInt(14);
+        if (headerSize == 12) {
+            return header("bmp", le.getShort(18) & 0xFFFF, le.getShort(20) & 0xFFFF);
+        }
+        return header("bmp", le.getInt(18), Math.abs(le.getInt(22)));
+    }
+
+    /**
+     * JPEG: сегменти від SOI до першого SOFn; орієнтація — з APP1 "Exif", якщо він є
+     */
+    private static ImageHeader parseJpeg(Source source) throws IOException {
+        Orientation orientation = Orientation.NORMAL;
+        long position = 2;
+        while (true) {
+            ByteBuffer marker = source.read(position, 4);
+            if (marker.remaining() < 2 || (marker.get(0) & 0xFF) != 0xFF) {
+                return null;
+            }
+            int code = marker.get(1) & 0xFF;
+            if (code == 0xFF) {
+                // Байт заповнення перед маркером
+                position++;
+                continue;
+            }
+            if (code == 0x01 || (code >= 0xD0 && code <= 0xD7)) {
+                // Маркери без довжини
+                position += 2;
+                continue;
+            }
+            if (code == 0xD9 || code == 0xDA || marker.remaining() < 4) {
+                // EOI або початок даних скану до SOF — пошкоджений файл
+                return null;
+            }
+            int length = marker.getShort(2) & 0xFFFF;
+            if (length < 2) {
+                return null;
+            }
+
+            if (isStartOfFrame(code)) {
+                ByteBuffer frame = source.read(position + 4, 5);
+                if (frame.remaining() < 5) {
+                    return null;
+                }
+                int height = frame.getShort(1) & 0xFFFF;
+                int width = frame.getShort(3) & 0xFFFF;
+                // SOF2, SOF6, SOF10 і SOF14 — прогресивне кодування
+                boolean progressive = (code & 0x03) == 0x02;
+                return width > 0 && height > 0
+                        ? new ImageHeader("jpeg", width, height, orientation, progressive) : null;
+            }
+            if (code == 0xE1 && length > 8) {
+                Orientation exif = exifOrientation(source.read(position + 4, length - 2));
+                if (exif != null) {
+                    orientation = exif;
+                }
+            }
+            position += 2 + length;
+        }
+    }
+
+    private static boolean isStartOfFrame(int code) {
+        // C4 (DHT), C8 (JPG) і CC (DAC) мають коди з того ж діапазону, але не є SOF
+        return code >= 0xC0 && code <= 0xCF && code != 0xC4 && code != 0xC8 && code != 0xCC;
+    }
+
+    /**
+     * Тег 0x0112 з IFD0 сегмента APP1 "Exif\0\0"
+     *
+     * @return орієнтація або null, якщо сегмент не EXIF чи тегу немає
+     */
+    private static Orientation exifOrientation(ByteBuffer segment) {
+        if (segment.remaining() < 14 || segment.getInt(0) != 0x45786966 || segment.getShort(4) != 0) {
+            return null;
+        }
+        ByteBuffer tiff = segment.slice(6, segment.remaining() - 6);
+        int byteOrder = tiff.getShort(0) & 0xFFFF;
+        if (byteOrder == 0x4949) {
+            tiff.order(ByteOrder.LITTLE_ENDIAN);
+        } else if (byteOrder != 0x4D4D) {
+            return null;
+        }
+        long ifd = tiff.getInt(4) & 0xFFFFFFFFL;
+        if (ifd + 2 > tiff.limit()) {
+            return null;
+        }
+        int entries = tiff.getShort((int) ifd) & 0xFFFF;
+        for (int i = 0; i < entries; i++) {
+            int entry = (int) ifd + 2 + i * 12;
+            if (entry + 12 > tiff.limit()) {
+                return null;
+            }
+            if ((tiff.getShort(entry) & 0xFFFF) == 0x0112) {
+                // Тип SHORT, значення лежить у перших двох байтах поля
+                return Orientation.fromExif(tiff.getShort(entry + 8) & 0xFFFF);
+            }
+        }
+        return null;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    /** Ширина збереженого растра (до застосування орієнтації) */
+    public int getWidth() {
+        return width;
+    }
+
+    /** Висота збереженого растра (до застосування орієнтації) */
+    public int getHeight() {
+        return height;
+    }
+
+    public Orientation getOrientation() {
+        return orientation;
+    }
+
+    /**
+     * Чи рядки збережені кількома проходами (прогресивний JPEG, PNG з Adam7), тобто
+     * декодер не видає їх згори донизу по одному разу. Для GIF і BMP завжди false.
+     */
+    public boolean isInterlaced() {
+        return interlaced;
+    }
+
+    /**
+     * Доступ до байтів файлу за позицією; результат — big-endian буфер
+     * з позицією 0, коротший за length біля кінця файлу
+     */
+    private interface Source {
+        ByteBuffer read(long position, int length) throws IOException;
+    }
+
+    private static final class BufferSource implements Source {
+        private final ByteBuffer data;
+
+        BufferSource(ByteBuffer data) {
+            this.data = data;
+        }
+
+        @Override
+        public ByteBuffer read(long position, int length) {
+            if (position >= data.limit()) {
+                return ByteBuffer.allocate(0);
+            }
+            int count = (int) Math.min(length, data.limit() - position);
+            return data.slice((int) position, count).order(ByteOrder.BIG_ENDIAN);
+        }
+    }
+
+    /**
+     * Файл: перші PREFIX_BYTES читаються одним зверненням, далі — лише потрібні діапазони
+     */
+    private static final class FileSource implements Source {
+        private final FileChannel channel;
+        private ByteBuffer prefix;
+
+        FileSource(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public ByteBuffer read(long position, int length) throws IOException {
+            if (prefix == null) {
+                prefix = readFully(0, PREFIX_BYTES);
+            }
+            if (position + length <= prefix.limit() || prefix.limit() < PREFIX_BYTES) {
+                return new BufferSource(prefix).read(position, length);
+            }
+            return readFully(position, length);
+        }
+
+        private ByteBuffer readFully(long position, int length) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            while (buffer.hasRemaining()) {
+                int read = channel.read(buffer, position + buffer.position());
+                if (read < 0) {
+                    break;
+                }
+            }
+            return buffer.flip();
+        }
+    }
+}
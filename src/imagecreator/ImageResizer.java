@@ -0,0 +1,577 @@
+package imagecreator;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Клас для зміни розміру зображень
+ */
+public class ImageResizer implements Callable<File> {
+    private final ImageTask task;
+    private final OutputCommitter committer;
+    private final boolean fingerprintSource;
+    private final PipelineMetrics metrics;
+    private final ThumbnailCache cache;
+
+    /**
+     * @param fingerprintSource обчислити відбиток джерела для маніфесту інкрементальної обробки
+     * @param metrics           метрики, в які записуються тривалості етапів та обсяги даних
+     * @param cache             кеш закодованих варіантів або null
+     */
+    public ImageResizer(ImageTask task, OutputCommitter committer, boolean fingerprintSource,
+                        PipelineMetrics metrics, ThumbnailCache cache) {
+        this.task = task;
+        this.committer = committer;
+        this.fingerprintSource = fingerprintSource;
+        this.metrics = metrics;
+        this.cache = cache;
+    }
+
+    /**
+     * Послідовне виконання всіх етапів в одному потоці
+     */
+    @Override
+    public File call() throws Exception {
+        return write(transform(read()));
+    }
+
+    /**
+     * Етап вводу-виводу: читає файл джерела в пам'ять, знімає його відбиток
+     * і шукає готові варіанти в кеші
+     */
+    public SourceData read() throws IOException {
+        File file = task.getSourceFile();
+        Log.debug("Reading: " + file.getName());
+        try {
+            OutputCommitter.checkFinalNames(task, outputFormats());
+            long stageStart = System.nanoTime();
+            // Розмір і час знімаються до читання вмісту, щоб зміну файлу під час
+            // обробки було видно при наступному запуску
+            long size = file.length();
+            long modified = file.lastModified();
+            ByteBuffer data = ImageDecoder.readContent(file);
+            metrics.recordStage(PipelineMetrics.Stage.READ, System.nanoTime() - stageStart);
+            metrics.bytesRead(data.remaining());
+            try {
+                return inspect(file, size, modified, data);
+            } catch (IOException | RuntimeException e) {
+                ImageDecoder.releaseContent(data);
+                throw e;
+            }
+        } catch (IOException e) {
+            throw failure(e);
+        }
+    }
+
+    /**
+     * Відбиток, пошук у кеші та заголовок для щойно прочитаного вмісту
+     */
+    private SourceData inspect(File file, long size, long modified, ByteBuffer data) throws IOException {
+        OutputManifest.Fingerprint fingerprint = fingerprintSource
+                ? OutputManifest.Fingerprint.of(size, modified, data) : null;
+        String cacheKey = null;
+        List<Path> cached = null;
+        if (cache != null) {
+            String hash = fingerprint != null ? fingerprint.hash : ContentHash.of(data);
+            cacheKey = ThumbnailCache.key(hash, task, getImageFormat(file.getName()));
+            cached = cache.lookup(cacheKey, outputFormats());
+            if (cached != null) {
+                metrics.cacheHit();
+                Log.debug("Found in thumbnail cache: " + file.getName());
+            } else {
+                metrics.cacheMiss();
+            }
+        }
+        // Орієнтація береться із заголовка до декодування пікселів
+        return new SourceData(data, ImageHeader.parse(data), fingerprint, cacheKey, cached);
+    }
+
+    /**
+     * Обчислювальний етап: декодування, каскадне масштабування та кодування
+     * всіх варіантів у пам'ять. Не звертається до файлової системи.
+     */
+    public EncodedImage transform(SourceData source) throws IOException {
+        if (source.cached != null) {
+            // Усі варіанти вже є в кеші: декодувати нічого
+            List<OutputSpec> specs = task.getOutputSpecs();
+            List<String> formats = outputFormats();
+            List<EncodedOutput> outputs = new ArrayList<>(specs.size());
+            for (int i = 0; i < specs.size(); i++) {
+                outputs.add(new EncodedOutput(i, specs.get(i), formats.get(i), source.cached.get(i)));
+            }
+            return new EncodedImage(outputs, source.fingerprint, null, source);
+        }
+
+        try {
+            Log.debug("Processing: " + task.getSourceFile().getName());
+
+            // Каскад від найбільшого варіанта до найменшого: кожен наступний
+            // масштабується з попереднього, якщо той покриває його розмір
+            // variants[i] — номер варіанта specs[i] у task.getOutputSpecs()
+            List<OutputSpec> taskSpecs = task.getOutputSpecs();
+            List<Integer> variants = new ArrayList<>(taskSpecs.size());
+            for (int i = 0; i < taskSpecs.size(); i++) {
+                variants.add(i);
+            }
+            variants.sort(Comparator.comparingLong((Integer variant) ->
+                    (long) taskSpecs.get(variant).getWidth() * taskSpecs.get(variant).getHeight()).reversed());
+            List<OutputSpec> specs = new ArrayList<>(variants.size());
+            for (int variant : variants) {
+                specs.add(taskSpecs.get(variant));
+            }
+
+            // Одне декодування з subsampling під найбільший варіант. Геометрія варіантів
+            // рахується за розмірами із заголовка, і декодується лише об'єднання їхніх
+            // областей обрізання
+            // Геометрія рахується в орієнтації відображення, а області обрізання
+            // перераховуються в координати збережених пікселів для декодера
+            ImageHeader header = source.header;
+            Orientation orientation = header != null ? header.getOrientation() : Orientation.NORMAL;
+            VariantLayout[] layouts = new VariantLayout[specs.size()];
+            Rectangle[] storedCrops = new Rectangle[specs.size()];
+            String sourceFormat = getImageFormat(task.getSourceFile().getName());
+            long stageStart = System.nanoTime();
+
+            // За відомим заголовком план рахується до декодування: з нього видно,
+            // чи декодований растр варто тримати в пам'яті цілком. Вікна SMART
+            // розміщуються вже за декодованим кадром, тож до того план охоплює весь кадр
+            boolean smart = task.getFitMode() == FitMode.SMART;
+            SmartCrop smartCrop = null;
+            ImageDecoder.Region initialPlan = header != null
+                    ? plan(header.getWidth(), header.getHeight(), orientation, specs, null, layouts, storedCrops)
+                    : null;
+            if (smart && initialPlan != null
+                    && ImageDecoder.needsBands(decodedWidth(initialPlan), decodedHeight(initialPlan))) {
+                // Смугам вікна потрібні до декодування: перегляд для аналізу декодується окремо
+                smartCrop = SmartCrop.analyze(source.data,
+                        orientation.transformedWidth(header.getWidth(), header.getHeight()),
+                        orientation.transformedHeight(header.getWidth(), header.getHeight()), orientation);
+                initialPlan = plan(header.getWidth(), header.getHeight(), orientation, specs, smartCrop,
+                        layouts, storedCrops);
+            }
+            ImageDecoder.Region planned = initialPlan;
+            if (planned != null && ImageDecoder.needsBands(decodedWidth(planned), decodedHeight(planned))) {
+                return new EncodedImage(transformBands(source.data, planned, variants, specs, layouts, storedCrops,
+                        orientation, sourceFormat), source.fingerprint, source.cacheKey, null);
+            }
+
+            SmartCrop placed = smartCrop;
+            ImageDecoder.Region[] decodePlan = new ImageDecoder.Region[1];
+            BufferedImage originalImage = ImageDecoder.decode(source.data, (sourceWidth, sourceHeight) ->
+                    decodePlan[0] = planned != null && sourceWidth == header.getWidth()
+                            && sourceHeight == header.getHeight()
+                            ? planned
+                            : plan(sourceWidth, sourceHeight, orientation, specs, placed, layouts, storedCrops));
+            metrics.recordStage(PipelineMetrics.Stage.DECODE, System.nanoTime() - stageStart);
+            Rectangle decodedArea = decodePlan[0].getSourceRegion();
+            int step = decodePlan[0].getStep();
+            if (smart && placed == null) {
+                // Декодовано весь кадр: перегляд для аналізу береться з нього, а розміри
+                // вікон і крок від розміщення не залежать, тож план лишається чинним
+                plan(decodedArea.width, decodedArea.height, orientation, specs,
+                        SmartCrop.analyze(originalImage,
+                                orientation.transformedWidth(decodedArea.width, decodedArea.height),
+                                orientation.transformedHeight(decodedArea.width, decodedArea.height), orientation),
+                        layouts, storedCrops);
+            }
+
+            List<EncodedOutput> outputs = new ArrayList<>(specs.size());
+            List<BufferedImage> rasters = new ArrayList<>(specs.size() + 1);
+            rasters.add(originalImage);
+            BufferedImage previous = null;
+            Rectangle previousCrop = null;
+
+            try {
+                for (int i = 0; i < specs.size(); i++) {
+                    OutputSpec spec = specs.get(i);
+                    VariantLayout layout = layouts[i];
+                    int contentWidth = layout.getContentWidth();
+                    int contentHeight = layout.getContentHeight();
+
+                    // Попередній варіант уже в орієнтації відображення, декодоване джерело — ні
+                    boolean fromPrevious = previous != null
+                            && layout.getCrop().equals(previousCrop)
+                            && previous.getWidth() >= contentWidth
+                            && previous.getHeight() >= contentHeight;
+                    BufferedImage scaleSource = fromPrevious
+                            ? previous : view(originalImage, storedCrops[i], decodedArea, step);
+                    Orientation sourceOrientation = fromPrevious ? Orientation.NORMAL : orientation;
+
+                    BufferedImage canvas;
+                    BufferedImage content;
+                    if (!layout.isPadded() && sourceOrientation == Orientation.NORMAL
+                            && scaleSource.getWidth() == contentWidth
+                            && scaleSource.getHeight() == contentHeight
+                            && scaleSource.getType() == BufferedImage.TYPE_INT_RGB) {
+                        canvas = scaleSource;
+                        content = scaleSource;
+                    } else {
+                        // Буфер цільового розміру з пулу потоку: при фіксованих розмірах
+                        // виходу новий растр на кожне зображення не виділяється
+                        canvas = RasterPool.acquire(layout.getCanvasWidth(), layout.getCanvasHeight(),
+                                BufferedImage.TYPE_INT_RGB);
+                        rasters.add(canvas);
+                        content = canvas;
+                        if (layout.isPadded()) {
+                            Arrays.fill(Resampler.pixels(canvas), FitMode.PAD_COLOR);
+                            content = canvas.getSubimage(layout.getContentX(), layout.getContentY(),
+                                    contentWidth, contentHeight);
+                        }
+                        // Після subsampling джерело ще щонайменше вдвічі більше за ціль,
+                        // тому фінальний прохід обраним алгоритмом не втрачає якість
+                        stageStart = System.nanoTime();
+                        // Поворот за EXIF виконується в тому ж проході, без окремої копії
+                        task.getResampleMode().getResampler().resample(scaleSource, content, sourceOrientation);
+                        metrics.recordStage(PipelineMetrics.Stage.SCALE, System.nanoTime() - stageStart);
+                    }
+
+                    outputs.add(encode(variants.get(i), spec, canvas, sourceFormat));
+                    previous = content;
+                    previousCrop = layout.getCrop();
+                }
+            } finally {
+                // Закодовані байти не посилаються на растри, тож їх можна віддати наступній задачі
+                for (BufferedImage raster : rasters) {
+                    RasterPool.release(raster);
+                }
+            }
+            return new EncodedImage(outputs, source.fingerprint, source.cacheKey, null);
+        } catch (IOException e) {
+            throw failure(e);
+        } finally {
+            // Закодовані варіанти не посилаються на вміст джерела
+            ImageDecoder.releaseContent(source.data);
+        }
+    }
+
+    /**
+     * Обробка джерела, декодований растр якого не варто тримати в пам'яті цілком:
+     * смуги декодуються по черзі й одразу масштабуються в усі варіанти, тож пам'ять
+     * пропорційна розміру варіантів і однієї смуги. Каскаду між варіантами немає —
+     * кожен рахується з джерела ядром режиму для смуг.
+     */
+    private List<EncodedOutput> transformBands(ByteBuffer data, ImageDecoder.Region region,
+                                               List<Integer> variants, List<OutputSpec> specs,
+                                               VariantLayout[] layouts,
+                                               Rectangle[] storedCrops, Orientation orientation,
+                                               String sourceFormat) throws IOException {
+        Rectangle area = region.getSourceRegion();
+        int step = region.getStep();
+        int decodedWidth = decodedWidth(region);
+        int decodedHeight = decodedHeight(region);
+        int bandRows = ImageDecoder.bandRows(decodedWidth, decodedHeight);
+        Log.debug("Decoding " + task.getSourceFile().getName() + " in bands of " + bandRows + " rows");
+
+        List<BufferedImage> canvases = new ArrayList<>(specs.size());
+        List<BandScaler> scalers = new ArrayList<>(specs.size());
+        try {
+            for (int i = 0; i < specs.size(); i++) {
+                VariantLayout layout = layouts[i];
+                BufferedImage canvas = RasterPool.acquire(layout.getCanvasWidth(), layout.getCanvasHeight(),
+                        BufferedImage.TYPE_INT_RGB);
+                canvases.add(canvas);
+                BufferedImage content = canvas;
+                if (layout.isPadded()) {
+                    Arrays.fill(Resampler.pixels(canvas), FitMode.PAD_COLOR);
+                    content = canvas.getSubimage(layout.getContentX(), layout.getContentY(),
+                            layout.getContentWidth(), layout.getContentHeight());
+                }
+                Rectangle part = decodedPart(storedCrops[i], area, step, decodedWidth, decodedHeight);
+                scalers.add(new BandScaler(task.getResampleMode().getBandKernel(), part.x, part.y,
+                        part.width, part.height, content, orientation, bandRows));
+            }
+
+            // Декодування і масштабування чергуються смуга за смугою, тож їхній
+            // спільний час записується як декодування
+            long stageStart = System.nanoTime();
+            ImageDecoder.decodeBands(data, region, (band, firstRow, rows) -> {
+                BufferedImage pixels = Resampler.toIntRgb(band);
+                try {
+                    for (BandScaler scaler : scalers) {
+                        scaler.accept(pixels, firstRow, rows);
+                    }
+                } finally {
+                    Resampler.releaseCopy(pixels, band);
+                }
+            });
+            metrics.recordStage(PipelineMetrics.Stage.DECODE, System.nanoTime() - stageStart);
+            for (BandScaler scaler : scalers) {
+                if (!scaler.isComplete()) {
+                    throw new IOException("Decoder returned fewer rows than expected");
+                }
+            }
+
+            List<EncodedOutput> outputs = new ArrayList<>(specs.size());
+            for (int i = 0; i < specs.size(); i++) {
+                outputs.add(encode(variants.get(i), specs.get(i), canvases.get(i), sourceFormat));
+            }
+            return outputs;
+        } finally {
+            for (BandScaler scaler : scalers) {
+                scaler.release();
+            }
+            for (BufferedImage canvas : canvases) {
+                RasterPool.release(canvas);
+            }
+        }
+    }
+
+    /**
+     * Кодує готовий варіант у пам'ять у форматі зі специфікації чи налаштувань
+     */
+    private EncodedOutput encode(int variant, OutputSpec spec, BufferedImage canvas,
+                                 String sourceFormat) throws IOException {
+        EncoderSettings settings = task.getEncoderSettings();
+        String format = spec.resolveFormat(settings.resolveFormat(sourceFormat));
+        long stageStart = System.nanoTime();
+        ByteBuffer encoded = ImageEncoder.encode(canvas, format, spec.getQuality(), settings);
+        long encodeNanos = System.nanoTime() - stageStart;
+        metrics.recordStage(PipelineMetrics.Stage.ENCODE, encodeNanos);
+        metrics.recordEncoded(format, encoded.remaining(), encodeNanos);
+        return new EncodedOutput(variant, spec, format, encoded);
+    }
+
+    /**
+     * Етап вводу-виводу: запис варіантів в унікальні тимчасові файли (варіанти з
+     * кешу — копіями його файлів) та фіналізація під кінцевими іменами
+     */
+    public File write(EncodedImage encoded) throws IOException {
+        List<ResizedOutput> outputs = new ArrayList<>(encoded.outputs.size());
+        boolean cacheFailed = false;
+        try {
+            long stageStart = System.nanoTime();
+            for (EncodedOutput variant : encoded.outputs) {
+                ResizedOutput output = committer.prepare(task, variant.spec, variant.format);
+                outputs.add(output);
+                Path temp = output.getTempFile().toPath();
+                if (variant.cached != null) {
+                    try {
+                        cache.materialize(variant.cached, temp);
+                    } catch (IOException e) {
+                        Log.warn("Cannot read thumbnail cache entry (" + e.getMessage()
+                                + "), processing again: " + task.getSourceFile().getName());
+                        cacheFailed = true;
+                        break;
+                    }
+                } else {
+                    ImageEncoder.writeFile(variant.data, temp);
+                    metrics.bytesWritten(variant.data.remaining());
+                    if (encoded.cacheKey != null) {
+                        cache.store(encoded.cacheKey, variant.variant, variant.format, variant.data);
+                    }
+                }
+                Log.debug("Resize completed: " + output.getFinalFile().getName());
+            }
+            if (!cacheFailed) {
+                metrics.recordStage(PipelineMetrics.Stage.WRITE, System.nanoTime() - stageStart);
+
+                // Кінцеві імена вже відомі з номера задачі
+                stageStart = System.nanoTime();
+                committer.commit(task, outputs, encoded.fingerprint);
+                metrics.recordStage(PipelineMetrics.Stage.COMMIT, System.nanoTime() - stageStart);
+                return task.getSourceFile();
+            }
+        } catch (IOException e) {
+            committer.discard(outputs);
+            throw failure(e);
+        } catch (RuntimeException e) {
+            committer.discard(outputs);
+            throw e;
+        } finally {
+            // Вміст джерела тримався лише на випадок повторної обробки нижче
+            if (!cacheFailed && encoded.cachedSource != null) {
+                ImageDecoder.releaseContent(encoded.cachedSource.data);
+            }
+        }
+
+        // Запис кешу видалено чи недоступний (інший процес, чужі права):
+        // варіанти обчислюються заново в цьому ж потоці; transform поверне вміст у пул
+        committer.discard(outputs);
+        return write(transform(encoded.cachedSource.withoutCache()));
+    }
+
+    /**
+     * Обчислює геометрію всіх варіантів і обирає, що декодувати: об'єднання областей
+     * обрізання та найбільший крок subsampling, за якого кожен варіант ще має запас якості
+     *
+     * @param sourceWidth  ширина збережених пікселів (із заголовка, до повороту)
+     * @param sourceHeight висота збережених пікселів
+     * @param smartCrop    аналіз для FitMode.SMART або null, якщо вікна ще не розміщені:
+     *                     тоді декодується весь кадр, а розміри вікон і крок уже остаточні
+     */
+    private ImageDecoder.Region plan(int sourceWidth, int sourceHeight, Orientation orientation,
+                                     List<OutputSpec> specs, SmartCrop smartCrop,
+                                     VariantLayout[] layouts, Rectangle[] storedCrops) {
+        int displayWidth = orientation.transformedWidth(sourceWidth, sourceHeight);
+        int displayHeight = orientation.transformedHeight(sourceWidth, sourceHeight);
+        FitMode fitMode = task.getFitMode();
+
+        Rectangle union = null;
+        int step = Integer.MAX_VALUE;
+        for (int i = 0; i < specs.size(); i++) {
+            OutputSpec spec = specs.get(i);
+            VariantLayout layout = fitMode.layout(displayWidth, displayHeight,
+                    spec.getWidth(), spec.getHeight(), smartCrop);
+            layouts[i] = layout;
+            Rectangle crop = orientation.toStored(layout.getCrop(), sourceWidth, sourceHeight);
+            storedCrops[i] = crop;
+            union = union == null ? new Rectangle(crop) : union.union(crop);
+            int contentWidth = layout.getContentWidth();
+            int contentHeight = layout.getContentHeight();
+            step = Math.min(step, ImageDecoder.subsamplingStep(crop.width, crop.height,
+                    orientation.transformedWidth(contentWidth, contentHeight),
+                    orientation.transformedHeight(contentWidth, contentHeight)));
+        }
+
+        if (fitMode == FitMode.SMART && smartCrop == null) {
+            union = new Rectangle(0, 0, sourceWidth, sourceHeight);
+        }
+        return new ImageDecoder.Region(union, step);
+    }
+
+    /**
+     * Частина декодованого зображення, що відповідає області обрізання варіанта
+     * (без копіювання пікселів)
+     */
+    private static BufferedImage view(BufferedImage decoded, Rectangle crop, Rectangle decodedArea, int step) {
+        Rectangle part = decodedPart(crop, decodedArea, step, decoded.getWidth(), decoded.getHeight());
+        if (part.x == 0 && part.y == 0 && part.width == decoded.getWidth() && part.height == decoded.getHeight()) {
+            return decoded;
+        }
+        return decoded.getSubimage(part.x, part.y, part.width, part.height);
+    }
+
+    /**
+     * Область обрізання в координатах декодованого растра decodedWidth x decodedHeight
+     */
+    private static Rectangle decodedPart(Rectangle crop, Rectangle decodedArea, int step,
+                                         int decodedWidth, int decodedHeight) {
+        // Декодер бере кожен step-й піксель, починаючи з першого, тому межі округлюються вгору
+        int x = Math.min(decodedWidth - 1, (crop.x - decodedArea.x + step - 1) / step);
+        int y = Math.min(decodedHeight - 1, (crop.y - decodedArea.y + step - 1) / step);
+        int right = (crop.x + crop.width - decodedArea.x + step - 1) / step;
+        int bottom = (crop.y + crop.height - decodedArea.y + step - 1) / step;
+        int width = Math.max(1, Math.min(decodedWidth, right) - x);
+        int height = Math.max(1, Math.min(decodedHeight, bottom) - y);
+        return new Rectangle(x, y, width, height);
+    }
+
+    private static int decodedWidth(ImageDecoder.Region region) {
+        return (region.getSourceRegion().width + region.getStep() - 1) / region.getStep();
+    }
+
+    private static int decodedHeight(ImageDecoder.Region region) {
+        return (region.getSourceRegion().height + region.getStep() - 1) / region.getStep();
+    }
+
+    /**
+     * Формат кожного варіанта у порядку task.getOutputSpecs()
+     */
+    private List<String> outputFormats() {
+        String sourceFormat = getImageFormat(task.getSourceFile().getName());
+        String defaultFormat = task.getEncoderSettings().resolveFormat(sourceFormat);
+        List<String> formats = new ArrayList<>(task.getOutputSpecs().size());
+        for (OutputSpec spec : task.getOutputSpecs()) {
+            formats.add(spec.resolveFormat(defaultFormat));
+        }
+        return formats;
+    }
+
+    private IOException failure(IOException e) {
+        Log.error("Cannot process " + task.getSourceFile().getName() + ": " + e.getMessage());
+        return e;
+    }
+
+    private String getImageFormat(String fileName) {
+        int lastDot = fileName.lastIndexOf('.');
+        if (lastDot > 0) {
+            return fileName.substring(lastDot + 1).toLowerCase();
+        }
+        return "jpg";
+    }
+
+    /**
+     * Вміст файлу джерела, прочитаний етапом вводу-виводу. Буфер вмісту повертається
+     * в пул після transform, а для варіантів з кешу — після write.
+     */
+    public static final class SourceData {
+        private final ByteBuffer data;
+        /** Заголовок або null, якщо його не вдалося розібрати (тоді орієнтація NORMAL) */
+        private final ImageHeader header;
+        private final OutputManifest.Fingerprint fingerprint;
+        /** Ключ кешу або null, якщо кеш вимкнено */
+        private final String cacheKey;
+        /** Файли кешу з усіма варіантами або null, якщо їх треба обчислити */
+        private final List<Path> cached;
+
+        SourceData(ByteBuffer data, ImageHeader header, OutputManifest.Fingerprint fingerprint,
+                   String cacheKey, List<Path> cached) {
+            this.data = data;
+            this.header = header;
+            this.fingerprint = fingerprint;
+            this.cacheKey = cacheKey;
+            this.cached = cached;
+        }
+
+        SourceData withoutCache() {
+            return new SourceData(data, header, fingerprint, cacheKey, null);
+        }
+    }
+
+    /**
+     * Закодований варіант, готовий до запису на диск: байти в пам'яті або файл кешу
+     */
+    public static final class EncodedOutput {
+        /** Номер варіанта в task.getOutputSpecs() (специфікації можуть повторюватися) */
+        private final int variant;
+        private final OutputSpec spec;
+        private final String format;
+        private final ByteBuffer data;
+        private final Path cached;
+
+        EncodedOutput(int variant, OutputSpec spec, String format, ByteBuffer data) {
+            this.variant = variant;
+            this.spec = spec;
+            this.format = format;
+            this.data = data;
+            this.cached = null;
+        }
+
+        EncodedOutput(int variant, OutputSpec spec, String format, Path cached) {
+            this.variant = variant;
+            this.spec = spec;
+            this.format = format;
+            this.data = null;
+            this.cached = cached;
+        }
+    }
+
+    /**
+     * Результат обчислювального етапу: усі варіанти джерела та його відбиток
+     */
+    public static final class EncodedImage {
+        private final List<EncodedOutput> outputs;
+        private final OutputManifest.Fingerprint fingerprint;
+        /** Ключ, під яким обчислені варіанти додаються до кешу, або null */
+        private final String cacheKey;
+        /** Джерело варіантів, узятих з кешу: на випадок, якщо файл кешу зникне */
+        private final SourceData cachedSource;
+
+        EncodedImage(List<EncodedOutput> outputs, OutputManifest.Fingerprint fingerprint,
+                     String cacheKey, SourceData cachedSource) {
+            this.outputs = outputs;
+            this.fingerprint = fingerprint;
+            this.cacheKey = cacheKey;
+            this.cachedSource = cachedSource;
+        }
+    }
+}
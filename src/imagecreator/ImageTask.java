@@ -0,0 +1,113 @@
+package imagecreator;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Клас для представлення задачі обробки зображення
+ */
+public class ImageTask {
+    private final File sourceFile;
+    private final List<OutputSpec> outputSpecs;
+    private final String outputPrefix;
+    private final ResampleMode resampleMode;
+    private final FitMode fitMode;
+    private final EncoderSettings encoderSettings;
+    private final int sequenceNumber;
+
+    /**
+     * @param fitMode         як вписувати джерело у розмір кожного варіанта
+     * @param encoderSettings налаштування кодувальників і примусовий формат виводу
+     * @param sequenceNumber  номер у вихідних іменах файлів (prefix_0001...)
+     */
+    public ImageTask(File sourceFile, List<OutputSpec> outputSpecs, String outputPrefix,
+                     ResampleMode resampleMode, FitMode fitMode, EncoderSettings encoderSettings,
+                     int sequenceNumber) {
+        if (outputSpecs.isEmpty()) {
+            throw new IllegalArgumentException("At least one output spec is required");
+        }
+        this.sourceFile = sourceFile;
+        this.outputSpecs = Collections.unmodifiableList(outputSpecs);
+        this.outputPrefix = outputPrefix;
+        this.resampleMode = resampleMode;
+        this.fitMode = fitMode;
+        this.encoderSettings = encoderSettings;
+        this.sequenceNumber = sequenceNumber;
+    }
+
+    public File getSourceFile() {
+        return sourceFile;
+    }
+
+    public List<OutputSpec> getOutputSpecs() {
+        return outputSpecs;
+    }
+
+    /**
+     * Найбільша ширина серед усіх вихідних варіантів
+     */
+    public int getMaxTargetWidth() {
+        int max = 0;
+        for (OutputSpec spec : outputSpecs) {
+            max = Math.max(max, spec.getWidth());
+        }
+        return max;
+    }
+
+    /**
+     * Найбільша висота серед усіх вихідних варіантів
+     */
+    public int getMaxTargetHeight() {
+        int max = 0;
+        for (OutputSpec spec : outputSpecs) {
+            max = Math.max(max, spec.getHeight());
+        }
+        return max;
+    }
+
+    public String getOutputPrefix() {
+        return outputPrefix;
+    }
+
+    public ResampleMode getResampleMode() {
+        return resampleMode;
+    }
+
+    public FitMode getFitMode() {
+        return fitMode;
+    }
+
+    public EncoderSettings getEncoderSettings() {
+        return encoderSettings;
+    }
+
+    public int getSequenceNumber() {
+        return sequenceNumber;
+    }
+
+    /**
+     * Рядок, що описує всі параметри, від яких залежить результат обробки.
+     * Зміна будь-якого з них робить попередні результати застарілими.
+     */
+    public String getParametersKey() {
+        return parametersKey(outputPrefix, outputSpecs, resampleMode, fitMode, encoderSettings);
+    }
+
+    /**
+     * Той самий рядок параметрів без конкретного джерела (для контрольної точки всієї обробки)
+     */
+    public static String parametersKey(String outputPrefix, List<OutputSpec> outputSpecs,
+                                       ResampleMode resampleMode, FitMode fitMode,
+                                       EncoderSettings encoderSettings) {
+        // Значення за замовчуванням не додаються, щоб маніфести попередніх версій лишалися дійсними
+        String key = outputPrefix + "|" + resampleMode + "|" + outputSpecs;
+        if (fitMode != FitMode.STRETCH) {
+            key += "|" + fitMode;
+        }
+        if (!encoderSettings.isDefault()) {
+            key += "|" + encoderSettings;
+        }
+        return key;
+    }
+}
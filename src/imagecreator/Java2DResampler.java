@@ -0,0 +1,35 @@
+package imagecreator;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+
+/**
+ * Масштабування одним проходом Graphics2D.drawImage
+ */
+public class Java2DResampler implements Resampler {
+    private final Object interpolation;
+
+    public Java2DResampler(Object interpolation) {
+        this.interpolation = interpolation;
+    }
+
+    @Override
+    public void resample(BufferedImage source, BufferedImage target, Orientation orientation) {
+        Graphics2D g = target.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, interpolation);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING,
+                RenderingHints.VALUE_RENDER_QUALITY);
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+                RenderingHints.VALUE_ANTIALIAS_ON);
+        Resampler.clearForAlpha(g, source, target);
+        // Малювання у збереженій орієнтації через перетворення в орієнтацію відображення
+        int width = orientation.transformedWidth(target.getWidth(), target.getHeight());
+        int height = orientation.transformedHeight(target.getWidth(), target.getHeight());
+        if (orientation != Orientation.NORMAL) {
+            g.transform(orientation.toDisplay(width, height));
+        }
+        g.drawImage(source, 0, 0, width, height, null);
+        g.dispose();
+    }
+}
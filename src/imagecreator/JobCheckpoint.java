@@ -0,0 +1,199 @@
+package imagecreator;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Файл контрольної точки пакетної обробки: журнал джерел, результати яких уже
+ * зафіксовані, разом з їхніми номерами. Записи лише дописуються в кінець і
+ * скидаються на диск кожні FLUSH_INTERVAL_MS, тож після аварійного завершення JVM
+ * повторний запуск з тим самим файлом пропускає майже всю виконану роботу.
+ * На відміну від маніфесту, не перевіряє вміст джерел і не потребує їхнього читання.
+ */
+public class JobCheckpoint {
+    /** Ім'я файлу у вихідній директорії, коли місце не задано явно (GUI) */
+    public static final String DEFAULT_FILE_NAME = ".imagecreator-checkpoint";
+    private static final String HEADER = "# imagecreator checkpoint v1";
+    private static final long FLUSH_INTERVAL_MS = 2000;
+
+    private final File file;
+    private final Map<String, Integer> completed = new ConcurrentHashMap<>();
+    private String parameters;
+    private BufferedWriter writer;
+    private ScheduledExecutorService flusher;
+
+    public JobCheckpoint(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Завантажує записи попереднього запуску, якщо файл існує.
+     * Обірваний останній рядок (аварійне завершення під час запису) ігнорується.
+     */
+    public void load() throws IOException {
+        if (!file.isFile()) {
+            return;
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            if (!HEADER.equals(reader.readLine())) {
+                throw new IOException("Not a checkpoint file: " + file);
+            }
+            String storedParameters = reader.readLine();
+            parameters = storedParameters != null ? OutputManifest.unescape(storedParameters) : null;
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int tab = line.indexOf('\t');
+                if (tab <= 0) continue;
+                try {
+                    completed.put(OutputManifest.unescape(line.substring(tab + 1)),
+                            Integer.parseInt(line.substring(0, tab)));
+                } catch (NumberFormatException e) {
+                    Log.warn("Skipping malformed checkpoint line");
+                }
+            }
+        }
+        Log.info("Checkpoint loaded: " + completed.size() + " completed input(s)");
+    }
+
+    /**
+     * Починає запис для обробки з заданими параметрами. Якщо попередній запуск мав
+     * інші параметри, його записи відкидаються. Файл переписується атомарно
+     * (без дублікатів і обірваних рядків), далі записи дописуються в кінець.
+     */
+    public synchronized void begin(String parameters) throws IOException {
+        closeWriter();
+        if (this.parameters != null && !this.parameters.equals(parameters) && !completed.isEmpty()) {
+            Log.warn("Checkpoint was written with other parameters, starting over");
+            completed.clear();
+        }
+        this.parameters = parameters;
+
+        Path temp = OutputCommitter.createTempFile(file.getAbsoluteFile().getParentFile().toPath(),
+                ".checkpoint");
+        try (BufferedWriter out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            out.write(HEADER);
+            out.newLine();
+            out.write(OutputManifest.escape(parameters));
+            out.newLine();
+            for (Map.Entry<String, Integer> entry : completed.entrySet()) {
+                writeEntry(out, entry.getKey(), entry.getValue());
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+
+        writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "checkpoint-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Номер, з яким джерело оброблено раніше
+     *
+     * @return номер або 0, якщо джерело ще не оброблене
+     */
+    public int getSequence(File source) {
+        return completed.getOrDefault(key(source), 0);
+    }
+
+    public int getCompletedCount() {
+        return completed.size();
+    }
+
+    /**
+     * Позначає джерело обробленим; викликається після фіксації всіх його результатів
+     */
+    public synchronized void record(File source, int sequence) {
+        String key = key(source);
+        completed.put(key, sequence);
+        if (writer == null) {
+            return;
+        }
+        try {
+            writeEntry(writer, key, sequence);
+        } catch (IOException e) {
+            Log.warn("Checkpoint disabled, cannot write: " + e.getMessage());
+            closeWriter();
+        }
+    }
+
+    public synchronized void flush() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            Log.warn("Checkpoint disabled, cannot write: " + e.getMessage());
+            closeWriter();
+        }
+    }
+
+    /**
+     * Скидає записи на диск і закриває файл; обробку можна продовжити пізніше
+     */
+    public synchronized void close() {
+        flush();
+        closeWriter();
+    }
+
+    /**
+     * Обробку завершено повністю: контрольна точка більше не потрібна
+     */
+    public synchronized void delete() {
+        closeWriter();
+        if (!file.delete() && file.exists()) {
+            Log.warn("Could not delete checkpoint: " + file);
+        }
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    private void closeWriter() {
+        if (flusher != null) {
+            flusher.shutdownNow();
+            flusher = null;
+        }
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                Log.warn("Could not close checkpoint: " + e.getMessage());
+            }
+            writer = null;
+        }
+    }
+
+    private static void writeEntry(BufferedWriter out, String key, int sequence) throws IOException {
+        out.write(sequence + "\t" + OutputManifest.escape(key));
+        out.newLine();
+    }
+
+    private static String key(File source) {
+        return source.getAbsolutePath();
+    }
+}
@@ -0,0 +1,243 @@
+package imagecreator;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Executors;
+
+/**
+ * Локальний HTTP API служби на вбудованому в JDK com.sun.net.httpserver.
+ * Запити й відповіді — простий текст UTF-8:
+ * <ul>
+ *   <li>POST /jobs — тіло містить аргументи задачі по одному в рядку; відповідь 201 зі статусом</li>
+ *   <li>GET /jobs — рядок на задачу: id, стан, оброблено, невдалих, вихідна директорія</li>
+ *   <li>GET /jobs/&lt;id&gt; — статус задачі рядками "ключ: значення"</li>
+ *   <li>POST /jobs/&lt;id&gt;/cancel, /pause, /resume — керування задачею</li>
+ *   <li>GET /metrics — метрики служби у форматі Prometheus</li>
+ * </ul>
+ * Задача читає довільні локальні директорії й пише в довільну вихідну, тож
+ * прив'язки до 127.0.0.1 недостатньо: будь-яка вебсторінка в браузері
+ * користувача може надіслати «простий» POST на localhost без CORS-перевірки
+ * (або через DNS rebinding). Тому кожен запит має містити заголовок
+ * "Authorization: Bearer &lt;токен&gt;" з токеном, що генерується при кожному
+ * запуску служби; запити із заголовком Origin (їх надсилає лише браузер) і з
+ * чужим Host відхиляються.
+ */
+final class JobHttpApi {
+    private static final String JOBS_PATH = "/jobs";
+    /** Межа розміру тіла запиту: аргументи задачі займають кілька кілобайт */
+    private static final int MAX_BODY_BYTES = 1024 * 1024;
+
+    private final JobService service;
+    private final byte[] token;
+    /** Допустимі значення Host (у нижньому регістрі) або null, якщо служба слухає всі адреси */
+    private final Set<String> allowedHosts;
+
+    private JobHttpApi(JobService service, String token, Set<String> allowedHosts) {
+        this.service = service;
+        this.token = token.getBytes(StandardCharsets.UTF_8);
+        this.allowedHosts = allowedHosts;
+    }
+
+    /**
+     * @param token токен, який клієнт передає в заголовку Authorization
+     */
+    static HttpServer start(JobService service, InetSocketAddress address, String token) throws IOException {
+        HttpServer server = HttpServer.create(address, 0);
+        JobHttpApi api = new JobHttpApi(service, token, allowedHosts(address, server.getAddress().getPort()));
+        server.createContext(JOBS_PATH, exchange -> {
+            try (exchange) {
+                if (api.authorize(exchange)) {
+                    api.handleJobs(exchange);
+                }
+            }
+        });
+        server.createContext("/metrics", exchange -> {
+            try (exchange) {
+                if (api.authorize(exchange)) {
+                    api.handleMetrics(exchange);
+                }
+            }
+        });
+        // Запити короткі й здебільшого чекають на мережу
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+        return server;
+    }
+
+    /**
+     * Імена, під якими клієнт може звертатися до служби: localhost-адреси та адреса
+     * прив'язки. Для 0.0.0.0 перелік невідомий, і захищає лише токен.
+     */
+    private static Set<String> allowedHosts(InetSocketAddress address, int port) {
+        if (address.getAddress() != null && address.getAddress().isAnyLocalAddress()) {
+            return null;
+        }
+        Set<String> hosts = new HashSet<>();
+        for (String host : List.of("localhost", "127.0.0.1", "[::1]", address.getHostString())) {
+            String name = host.indexOf(':') >= 0 && !host.startsWith("[") ? "[" + host + "]" : host;
+            hosts.add(name.toLowerCase(Locale.ROOT) + ":" + port);
+        }
+        return hosts;
+    }
+
+    /**
+     * Перевіряє Origin, Host і токен; на відхилений запит одразу надсилає відповідь
+     */
+    private boolean authorize(HttpExchange exchange) throws IOException {
+        if (exchange.getRequestHeaders().containsKey("Origin")) {
+            send(exchange, 403, "Cross-origin requests are not allowed\n");
+            return false;
+        }
+        String host = exchange.getRequestHeaders().getFirst("Host");
+        if (allowedHosts != null && (host == null || !allowedHosts.contains(host.toLowerCase(Locale.ROOT)))) {
+            send(exchange, 403, "Unexpected Host header\n");
+            return false;
+        }
+        String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        byte[] presented = authorization != null && authorization.startsWith("Bearer ")
+                ? authorization.substring("Bearer ".length()).strip().getBytes(StandardCharsets.UTF_8)
+                : new byte[0];
+        if (!MessageDigest.isEqual(presented, token)) {
+            exchange.getResponseHeaders().set("WWW-Authenticate", "Bearer");
+            send(exchange, 401, "Missing or invalid token (Authorization: Bearer <token>)\n");
+            return false;
+        }
+        return true;
+    }
+
+    private void handleJobs(HttpExchange exchange) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            String path = exchange.getRequestURI().getPath();
+            if (!path.equals(JOBS_PATH) && !path.startsWith(JOBS_PATH + "/")) {
+                send(exchange, 404, "Not found\n");
+                return;
+            }
+            String rest = path.length() > JOBS_PATH.length() ? path.substring(JOBS_PATH.length() + 1) : "";
+            if (rest.endsWith("/")) {
+                rest = rest.substring(0, rest.length() - 1);
+            }
+
+            if (rest.isEmpty()) {
+                if (method.equals("POST")) {
+                    submit(exchange);
+                } else if (method.equals("GET")) {
+                    send(exchange, 200, listJobs());
+                } else {
+                    send(exchange, 405, "Method not allowed\n");
+                }
+                return;
+            }
+
+            int slash = rest.indexOf('/');
+            String id = slash < 0 ? rest : rest.substring(0, slash);
+            String action = slash < 0 ? null : rest.substring(slash + 1);
+            ServiceJob job = service.getJob(id);
+            if (job == null) {
+                send(exchange, 404, "No such job: " + id + "\n");
+                return;
+            }
+            if (action == null) {
+                if (method.equals("GET")) {
+                    send(exchange, 200, job.formatStatus());
+                } else {
+                    send(exchange, 405, "Method not allowed\n");
+                }
+                return;
+            }
+            if (!method.equals("POST")) {
+                send(exchange, 405, "Method not allowed\n");
+                return;
+            }
+            switch (action) {
+                case "cancel" -> job.cancel();
+                case "pause" -> job.pause();
+                case "resume" -> job.resume();
+                default -> {
+                    send(exchange, 404, "Unknown action: " + action + "\n");
+                    return;
+                }
+            }
+            send(exchange, 200, job.formatStatus());
+        } catch (RuntimeException e) {
+            Log.error("HTTP request failed: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    private void submit(HttpExchange exchange) throws IOException {
+        byte[] body;
+        try (InputStream in = exchange.getRequestBody()) {
+            body = in.readNBytes(MAX_BODY_BYTES + 1);
+        }
+        if (body.length > MAX_BODY_BYTES) {
+            send(exchange, 413, "Request body is too large\n");
+            return;
+        }
+
+        List<String> arguments = new ArrayList<>();
+        for (String line : new String(body, StandardCharsets.UTF_8).split("\r?\n")) {
+            String argument = line.strip();
+            if (!argument.isEmpty() && !argument.startsWith("#")) {
+                arguments.add(argument);
+            }
+        }
+        ServiceJob job;
+        try {
+            job = service.submit(arguments, null);
+        } catch (IllegalArgumentException e) {
+            send(exchange, 400, "ERROR: " + e.getMessage() + "\n");
+            return;
+        }
+        exchange.getResponseHeaders().set("Location", JOBS_PATH + "/" + job.getId());
+        send(exchange, 201, job.formatStatus());
+    }
+
+    private String listJobs() {
+        StringBuilder out = new StringBuilder();
+        for (ServiceJob job : service.getJobs()) {
+            PipelineMetrics metrics = job.getMetrics();
+            out.append(job.getId()).append('\t').append(job.getState()).append('\t')
+                    .append(metrics != null ? metrics.getCompleted() : 0).append('\t')
+                    .append(metrics != null ? metrics.getFailed() : 0).append('\t')
+                    .append(OutputManifest.escape(job.getOutputDirectory().getPath())).append('\n');
+        }
+        return out.toString();
+    }
+
+    private void handleMetrics(HttpExchange exchange) throws IOException {
+        if (!exchange.getRequestMethod().equals("GET")) {
+            send(exchange, 405, "Method not allowed\n");
+            return;
+        }
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+        byte[] bytes = service.toPrometheus().getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        if (!exchange.getResponseHeaders().containsKey("Content-Type")) {
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        }
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,545 @@
+package imagecreator;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Режим служби: один процес з «прогрітими» пулами обробки приймає задачі через
+ * локальний HTTP (JobHttpApi) або директорію черги і виконує кілька задач
+ * одночасно на спільному конвеєрі. Кожна задача — звичайна пакетна обробка
+ * (ImageCreator) зі своєю вихідною директорією, а пули, бюджет пам'яті, кеш
+ * мініатюр і метрики спільні. Так не витрачається час на запуск JVM і прогрів
+ * JIT для кожного пакета.
+ */
+public class JobService {
+    public static final int DEFAULT_PORT = 8765;
+    public static final int DEFAULT_MAX_JOBS = 2;
+    /** Розширення файлів задач у директорії черги */
+    public static final String SPOOL_SUFFIX = ".job";
+    private static final String ACCEPTED_SUFFIX = ".accepted";
+    private static final String STATUS_SUFFIX = ".status";
+    private static final long SPOOL_POLL_MS = 1000;
+    /** Скільки завершених задач зберігається для запитів стану */
+    private static final int MAX_FINISHED_JOBS = 1000;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+    private static final int TOKEN_BYTES = 32;
+
+    private final ForkJoinPool resizeExecutor;
+    private final ExecutorService ioExecutor;
+    private final AdmissionController admission;
+    private final PipelineMetrics metrics = new PipelineMetrics();
+    private final ExecutorService jobRunner;
+    /** Задачі в порядку надходження */
+    private final Map<String, ServiceJob> jobs = new LinkedHashMap<>();
+    /** Вихідні директорії задач, що виконуються: дві задачі не пишуть в одну директорію одночасно */
+    private final Set<File> activeOutputs = new HashSet<>();
+    private final AtomicLong jobCounter = new AtomicLong();
+    private volatile ThumbnailCache cache;
+    private ScheduledExecutorService spoolPoller;
+
+    /**
+     * @param threads кількість потоків обробки (спільна для всіх задач)
+     * @param maxJobs скільки задач виконується одночасно; решта чекає в черзі
+     */
+    public JobService(int threads, int maxJobs, long memoryBudget) {
+        this.resizeExecutor = new ForkJoinPool(threads);
+        this.ioExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        this.admission = new AdmissionController(memoryBudget, threads * 4);
+        this.metrics.setWorkerThreads(threads);
+        AtomicInteger runnerCount = new AtomicInteger();
+        this.jobRunner = Executors.newFixedThreadPool(maxJobs, runnable -> {
+            Thread thread = new Thread(runnable, "job-runner-" + runnerCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Кеш мініатюр, спільний для всіх задач (null — без кешу)
+     */
+    public void setCache(ThumbnailCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Ставить задачу в чергу
+     *
+     * @param arguments аргументи як у консольному режимі, без параметрів усього процесу
+     * @param spoolFile файл задачі в директорії черги або null
+     * @throws IllegalArgumentException некоректні аргументи
+     */
+    public ServiceJob submit(List<String> arguments, File spoolFile) {
+        ImageCreatorCLI options = ImageCreatorCLI.parseJob(arguments);
+        ServiceJob job = new ServiceJob(String.valueOf(jobCounter.incrementAndGet()), arguments, options,
+                spoolFile);
+        synchronized (jobs) {
+            jobs.put(job.getId(), job);
+        }
+        Log.info("Job " + job.getId() + " queued: " + job.getOutputDirectory());
+        if (spoolFile != null) {
+            writeStatus(spoolFile, job.formatStatus());
+        }
+        jobRunner.execute(() -> runJob(job));
+        return job;
+    }
+
+    public ServiceJob getJob(String id) {
+        synchronized (jobs) {
+            return jobs.get(id);
+        }
+    }
+
+    public List<ServiceJob> getJobs() {
+        synchronized (jobs) {
+            return new ArrayList<>(jobs.values());
+        }
+    }
+
+    /**
+     * Метрики всіх задач разом
+     */
+    public PipelineMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Метрики служби у форматі Prometheus: сумарні метрики конвеєра та кількість задач за станом
+     */
+    public String toPrometheus() {
+        Map<ServiceJob.State, Integer> counts = new EnumMap<>(ServiceJob.State.class);
+        for (ServiceJob.State state : ServiceJob.State.values()) {
+            counts.put(state, 0);
+        }
+        for (ServiceJob job : getJobs()) {
+            counts.merge(job.getState(), 1, Integer::sum);
+        }
+        StringBuilder out = new StringBuilder(metrics.toPrometheus());
+        out.append("# HELP imagecreator_jobs Service jobs by state (finished jobs are retained up to a limit).\n");
+        out.append("# TYPE imagecreator_jobs gauge\n");
+        for (Map.Entry<ServiceJob.State, Integer> entry : counts.entrySet()) {
+            out.append("imagecreator_jobs{state=\"").append(entry.getKey().name().toLowerCase())
+                    .append("\"} ").append(entry.getValue()).append('\n');
+        }
+        return out.toString();
+    }
+
+    private void runJob(ServiceJob job) {
+        File output = job.getOutputDirectory();
+        try {
+            acquireOutput(output);
+        } catch (InterruptedException e) {
+            job.finish(ServiceJob.State.CANCELLED, "Service is shutting down");
+            jobFinished(job);
+            return;
+        }
+        try {
+            if (job.getState() != ServiceJob.State.QUEUED) {
+                return;
+            }
+            if (!output.isDirectory() && !output.mkdirs()) {
+                job.finish(ServiceJob.State.FAILED, "Cannot create output directory: " + output);
+                return;
+            }
+            ImageCreator creator = new ImageCreator(output, resizeExecutor, ioExecutor, admission, metrics);
+            if (!job.start(creator)) {
+                creator.shutdown();
+                return;
+            }
+            Log.info("Job " + job.getId() + " started");
+            ImageCreatorCLI options = job.getOptions();
+            try {
+                creator.setCache(cache);
+                options.configureJob(creator);
+                options.processInputs(creator);
+            } finally {
+                creator.shutdown();
+            }
+
+            if (creator.getJob().isCancelled()) {
+                job.finish(ServiceJob.State.CANCELLED, null);
+            } else if (creator.getFailedCount() > 0) {
+                job.finish(ServiceJob.State.FAILED, creator.getFailedCount() + " file(s) failed");
+            } else if (creator.getProcessedCount() + creator.getSkippedCount() == 0) {
+                job.finish(ServiceJob.State.FAILED, "No input files found");
+            } else {
+                job.finish(ServiceJob.State.SUCCEEDED, null);
+            }
+        } catch (IOException | RuntimeException e) {
+            Log.error("Job " + job.getId() + " failed: " + e.getMessage());
+            job.finish(ServiceJob.State.FAILED, String.valueOf(e.getMessage()));
+        } finally {
+            releaseOutput(output);
+            jobFinished(job);
+        }
+    }
+
+    private void acquireOutput(File output) throws InterruptedException {
+        synchronized (activeOutputs) {
+            while (!activeOutputs.add(output)) {
+                activeOutputs.wait();
+            }
+        }
+    }
+
+    private void releaseOutput(File output) {
+        synchronized (activeOutputs) {
+            activeOutputs.remove(output);
+            activeOutputs.notifyAll();
+        }
+    }
+
+    /**
+     * Записує підсумок задачі черги й відкидає найстаріші завершені задачі понад ліміт
+     */
+    private void jobFinished(ServiceJob job) {
+        Log.info("Job " + job.getId() + " " + job.getState().name().toLowerCase());
+        File spoolFile = job.getSpoolFile();
+        if (spoolFile != null) {
+            writeStatus(spoolFile, job.formatStatus());
+            if (!spoolFile.delete() && spoolFile.exists()) {
+                Log.warn("Could not delete accepted job file: " + spoolFile.getName());
+            }
+        }
+
+        synchronized (jobs) {
+            int finished = 0;
+            for (ServiceJob item : jobs.values()) {
+                if (item.getState().isFinished()) finished++;
+            }
+            Iterator<ServiceJob> iterator = jobs.values().iterator();
+            while (finished > MAX_FINISHED_JOBS && iterator.hasNext()) {
+                if (iterator.next().getState().isFinished()) {
+                    iterator.remove();
+                    finished--;
+                }
+            }
+        }
+    }
+
+    /**
+     * Починає опитувати директорію черги. Задача — текстовий файл *.job з
+     * аргументами консольного режиму, по одному в рядку (порожні рядки і рядки
+     * з '#' пропускаються). Файл слід створювати під іншим ім'ям і перейменовувати
+     * в *.job, коли він записаний. Прийнятий файл перейменовується в *.job.accepted,
+     * поруч з'являється *.status зі станом задачі, а після завершення — з підсумком.
+     */
+    public void startSpool(File directory) throws IOException {
+        Files.createDirectories(directory.toPath());
+        spoolPoller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "spool-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        spoolPoller.scheduleWithFixedDelay(() -> pollSpool(directory), 0, SPOOL_POLL_MS, TimeUnit.MILLISECONDS);
+        Log.info("Watching spool directory: " + directory.getAbsolutePath());
+    }
+
+    private void pollSpool(File directory) {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(SPOOL_SUFFIX));
+        if (files == null) {
+            return;
+        }
+        // Задачі приймаються в порядку появи
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified).thenComparing(File::getName));
+        for (File file : files) {
+            String name = file.getName().substring(0, file.getName().length() - SPOOL_SUFFIX.length());
+            File accepted = new File(directory, file.getName() + ACCEPTED_SUFFIX);
+            File status = new File(directory, name + STATUS_SUFFIX);
+            try {
+                // Перейменування — захоплення задачі: файл не буде прийнято двічі
+                Files.move(file.toPath(), accepted.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                continue;
+            }
+            try {
+                List<String> arguments = new ArrayList<>();
+                for (String line : Files.readAllLines(accepted.toPath(), StandardCharsets.UTF_8)) {
+                    String argument = line.strip();
+                    if (!argument.isEmpty() && !argument.startsWith("#")) {
+                        arguments.add(argument);
+                    }
+                }
+                submit(arguments, accepted);
+            } catch (IOException | IllegalArgumentException e) {
+                Log.error("Rejected job " + file.getName() + ": " + e.getMessage());
+                writeStatusFile(status, "state: REJECTED\nerror: "
+                        + OutputManifest.escape(String.valueOf(e.getMessage())) + "\n");
+                if (!accepted.delete()) {
+                    Log.warn("Could not delete rejected job file: " + accepted.getName());
+                }
+            } catch (RuntimeException e) {
+                // Виняток у запланованій задачі зупинив би опитування
+                Log.error("Spool error: " + e.getMessage());
+            }
+        }
+    }
+
+    private static void writeStatus(File acceptedFile, String status) {
+        String name = acceptedFile.getName();
+        String base = name.substring(0, name.length() - SPOOL_SUFFIX.length() - ACCEPTED_SUFFIX.length());
+        writeStatusFile(new File(acceptedFile.getParentFile(), base + STATUS_SUFFIX), status);
+    }
+
+    /**
+     * Атомарно замінює файл статусу, щоб клієнт не прочитав його наполовину
+     */
+    private static synchronized void writeStatusFile(File file, String status) {
+        try {
+            Path temp = OutputCommitter.createTempFile(file.getAbsoluteFile().getParentFile().toPath(),
+                    STATUS_SUFFIX);
+            Files.writeString(temp, status, StandardCharsets.UTF_8);
+            Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Log.warn("Could not write job status " + file.getName() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Зупиняє прийом задач, скасовує незавершені та чекає, поки вони допишуть
+     * уже оброблені результати
+     */
+    public void shutdown() {
+        if (spoolPoller != null) {
+            spoolPoller.shutdownNow();
+        }
+        for (ServiceJob job : getJobs()) {
+            job.cancel();
+        }
+        jobRunner.shutdown();
+        try {
+            if (!jobRunner.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                Log.warn("Jobs did not finish in " + SHUTDOWN_TIMEOUT_SECONDS + " s");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        resizeExecutor.shutdown();
+        ioExecutor.shutdown();
+        Log.info("Service stopped");
+    }
+
+    /**
+     * Запускає службу з параметрами командного рядка (після --serve) і працює до
+     * завершення процесу (Ctrl+C, SIGTERM)
+     */
+    public static int run(String[] args) {
+        int port = DEFAULT_PORT;
+        String bind = "127.0.0.1";
+        File spoolDirectory = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int maxJobs = DEFAULT_MAX_JOBS;
+        long memoryBudget = AdmissionController.defaultCapacity();
+        File cacheDirectory = null;
+        long cacheSize = ThumbnailCache.DEFAULT_CAPACITY;
+        File logFile = null;
+        File tokenFile = defaultTokenFile();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                switch (arg) {
+                    case "--help":
+                        printUsage();
+                        return ImageCreatorCLI.EXIT_OK;
+                    case "--port":
+                        // 0 вимикає HTTP: задачі приймаються лише з директорії черги
+                        port = Integer.parseInt(ImageCreatorCLI.requireValue(args, ++i, arg));
+                        if (port < 0 || port > 65535) {
+                            throw new IllegalArgumentException("--port must be in range 0..65535");
+                        }
+                        break;
+                    case "--bind":
+                        bind = ImageCreatorCLI.requireValue(args, ++i, arg);
+                        break;
+                    case "--token-file":
+                        tokenFile = new File(ImageCreatorCLI.requireValue(args, ++i, arg));
+                        break;
+                    case "--spool":
+                        spoolDirectory = new File(ImageCreatorCLI.requireValue(args, ++i, arg));
+                        break;
+                    case "--threads":
+                        threads = ImageCreatorCLI.parsePositiveInt(ImageCreatorCLI.requireValue(args, ++i, arg), arg);
+                        break;
+                    case "--max-jobs":
+                        maxJobs = ImageCreatorCLI.parsePositiveInt(ImageCreatorCLI.requireValue(args, ++i, arg), arg);
+                        break;
+                    case "--memory-budget":
+                        memoryBudget = ImageCreatorCLI.parseByteSize(ImageCreatorCLI.requireValue(args, ++i, arg), arg);
+                        break;
+                    case "--cache":
+                        cacheDirectory = new File(ImageCreatorCLI.requireValue(args, ++i, arg));
+                        break;
+                    case "--cache-size":
+                        cacheSize = ImageCreatorCLI.parseByteSize(ImageCreatorCLI.requireValue(args, ++i, arg), arg);
+                        break;
+                    case "--log-level":
+                        Log.setLevel(ImageCreatorCLI.parseLogLevel(ImageCreatorCLI.requireValue(args, ++i, arg)));
+                        break;
+                    case "--log-file":
+                        logFile = new File(ImageCreatorCLI.requireValue(args, ++i, arg));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown service option: " + arg);
+                }
+            }
+            if (port == 0 && spoolDirectory == null) {
+                throw new IllegalArgumentException("Nothing to listen on: set --port or --spool");
+            }
+        } catch (NumberFormatException e) {
+            System.err.println("ERROR: Invalid port: " + e.getMessage());
+            return ImageCreatorCLI.EXIT_USAGE;
+        } catch (IllegalArgumentException e) {
+            System.err.println("ERROR: " + e.getMessage());
+            printUsage();
+            return ImageCreatorCLI.EXIT_USAGE;
+        }
+
+        if (logFile != null) {
+            try {
+                Log.addSink(new RollingFileLogSink(logFile, ImageCreatorCLI.LOG_FILE_MAX_BYTES,
+                        ImageCreatorCLI.LOG_FILE_BACKUPS));
+            } catch (IOException e) {
+                System.err.println("ERROR: Cannot open log file: " + e.getMessage());
+                return ImageCreatorCLI.EXIT_USAGE;
+            }
+        }
+
+        JobService service = new JobService(threads, maxJobs, memoryBudget);
+        HttpServer server = null;
+        try {
+            if (cacheDirectory != null) {
+                ThumbnailCache cache = new ThumbnailCache(cacheDirectory, cacheSize);
+                try {
+                    cache.load();
+                    service.setCache(cache);
+                } catch (IOException e) {
+                    Log.warn("Thumbnail cache disabled, cannot open " + cacheDirectory + ": " + e.getMessage());
+                }
+            }
+            if (spoolDirectory != null) {
+                service.startSpool(spoolDirectory);
+            }
+            if (port > 0) {
+                byte[] secret = new byte[TOKEN_BYTES];
+                new SecureRandom().nextBytes(secret);
+                String token = HexFormat.of().formatHex(secret);
+                writeTokenFile(tokenFile, token);
+                server = JobHttpApi.start(service, new InetSocketAddress(bind, port), token);
+                Log.info("Listening on http://" + bind + ":" + server.getAddress().getPort()
+                        + "/jobs (token in " + tokenFile.getAbsolutePath() + ")");
+            }
+        } catch (IOException e) {
+            Log.error("Cannot start service: " + e.getMessage());
+            service.shutdown();
+            return ImageCreatorCLI.EXIT_USAGE;
+        }
+        Log.info("Service started: " + threads + " worker thread(s), up to " + maxJobs + " concurrent job(s)");
+
+        // Служба працює до завершення процесу; обробник скасовує задачі та чекає,
+        // поки вони допишуть уже оброблені результати
+        CountDownLatch stopped = new CountDownLatch(1);
+        HttpServer httpServer = server;
+        File writtenTokenFile = tokenFile;
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            if (httpServer != null) {
+                httpServer.stop(0);
+                // Токен дійсний лише до зупинки служби
+                writtenTokenFile.delete();
+            }
+            service.shutdown();
+            Log.flush();
+            stopped.countDown();
+        }, "service-shutdown"));
+        try {
+            stopped.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return ImageCreatorCLI.EXIT_OK;
+    }
+
+    /**
+     * Файл токена HTTP API за замовчуванням (~/.imagecreator-service-token)
+     */
+    static File defaultTokenFile() {
+        return new File(System.getProperty("user.home"), ".imagecreator-service-token");
+    }
+
+    /**
+     * Атомарно записує токен у файл, доступний лише власнику (там, де файлова
+     * система підтримує права POSIX; на Windows файл захищає профіль користувача)
+     */
+    private static void writeTokenFile(File file, String token) throws IOException {
+        Path directory = file.getAbsoluteFile().getParentFile().toPath();
+        Files.createDirectories(directory);
+        Path temp = OutputCommitter.createTempFile(directory, ".token");
+        try {
+            try {
+                Files.setPosixFilePermissions(temp, PosixFilePermissions.fromString("rw-------"));
+            } catch (UnsupportedOperationException e) {
+                // Не POSIX-файлова система
+            }
+            Files.writeString(temp, token + "\n", StandardCharsets.UTF_8);
+            Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void printUsage() {
+        System.out.println("Usage: java Main --serve [options]");
+        System.out.println();
+        System.out.println("Runs until stopped (Ctrl+C or SIGTERM), keeping one warm pipeline for all");
+        System.out.println("jobs. A job takes the batch options (--output, --size, --filter, ...) and");
+        System.out.println("inputs, one argument per line.");
+        System.out.println();
+        System.out.println("Options:");
+        System.out.println("  --port <n>            Local HTTP API port (default " + DEFAULT_PORT + ", 0 disables):");
+        System.out.println("                        POST /jobs, GET /jobs, GET /jobs/<id>,");
+        System.out.println("                        POST /jobs/<id>/cancel|pause|resume, GET /metrics");
+        System.out.println("                        Every request needs \"Authorization: Bearer <token>\";");
+        System.out.println("                        a new token is written to the token file at each start.");
+        System.out.println("                        Requests with an Origin header (browsers) or a Host");
+        System.out.println("                        other than the bind address or localhost are rejected");
+        System.out.println("  --token-file <file>   Where to write the token (default ~/.imagecreator-service-token,");
+        System.out.println("                        readable only by the owner; deleted on shutdown)");
+        System.out.println("  --bind <address>      HTTP bind address (default 127.0.0.1)");
+        System.out.println("  --spool <dir>         Also accept *.job files dropped into <dir>;");
+        System.out.println("                        progress and results go to <name>.status");
+        System.out.println("  --threads <n>         Decode/scale/encode threads shared by all jobs");
+        System.out.println("  --max-jobs <n>        Jobs run concurrently (default " + DEFAULT_MAX_JOBS + ")");
+        System.out.println("  --memory-budget <n>   Max decoded pixel memory in flight across all jobs");
+        System.out.println("  --cache <dir>         Thumbnail cache shared by all jobs");
+        System.out.println("  --cache-size <n>      Cache size limit (default 1g)");
+        System.out.println("  --log-level <level>   debug, info (default), warn or error");
+        System.out.println("  --log-file <file>     Also write the log to a file, rolled at 10 MB (5 backups)");
+        System.out.println("  --help                Show this help");
+    }
+}
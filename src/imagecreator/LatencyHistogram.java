@@ -0,0 +1,93 @@
+package imagecreator;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Гістограма тривалостей з фіксованими межами кошиків (у стилі Prometheus).
+ * Запис без блокувань, тож її можна оновлювати з усіх потоків пулу.
+ */
+public class LatencyHistogram {
+    /** Верхні межі кошиків у секундах; останній кошик — +Inf */
+    static final double[] BUCKET_BOUNDS = {
+            0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10
+    };
+
+    private final LongAdder[] buckets = new LongAdder[BUCKET_BOUNDS.length + 1];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumNanos = new LongAdder();
+
+    public LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long nanos) {
+        double seconds = nanos / 1e9;
+        int bucket = 0;
+        while (bucket < BUCKET_BOUNDS.length && seconds > BUCKET_BOUNDS[bucket]) {
+            bucket++;
+        }
+        buckets[bucket].increment();
+        count.increment();
+        sumNanos.add(nanos);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public double getSumSeconds() {
+        return sumNanos.sum() / 1e9;
+    }
+
+    public double getMeanMillis() {
+        long n = count.sum();
+        return n == 0 ? 0 : sumNanos.sum() / 1e6 / n;
+    }
+
+    /**
+     * Верхня межа кошика, в який потрапляє квантиль q (0..1), у мілісекундах.
+     * Для значень понад останню межу повертає Double.POSITIVE_INFINITY.
+     */
+    public double quantileUpperBoundMillis(double q) {
+        long n = count.sum();
+        if (n == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(q * n);
+        long cumulative = 0;
+        for (int i = 0; i < BUCKET_BOUNDS.length; i++) {
+            cumulative += buckets[i].sum();
+            if (cumulative >= rank) {
+                return BUCKET_BOUNDS[i] * 1000;
+            }
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Дописує рядки _bucket/_sum/_count у текстовому форматі Prometheus
+     */
+    void appendPrometheus(StringBuilder out, String name, String labels) {
+        String prefix = labels.isEmpty() ? "" : labels + ",";
+        long cumulative = 0;
+        for (int i = 0; i < BUCKET_BOUNDS.length; i++) {
+            cumulative += buckets[i].sum();
+            out.append(name).append("_bucket{").append(prefix).append("le=\"")
+                    .append(formatBound(BUCKET_BOUNDS[i])).append("\"} ").append(cumulative).append('\n');
+        }
+        cumulative += buckets[BUCKET_BOUNDS.length].sum();
+        out.append(name).append("_bucket{").append(prefix).append("le=\"+Inf\"} ")
+                .append(cumulative).append('\n');
+        String braces = labels.isEmpty() ? "" : "{" + labels + "}";
+        out.append(name).append("_sum").append(braces).append(' ')
+                .append(String.format(Locale.ROOT, "%.6f", getSumSeconds())).append('\n');
+        out.append(name).append("_count").append(braces).append(' ').append(cumulative).append('\n');
+    }
+
+    private static String formatBound(double bound) {
+        return bound == Math.rint(bound) ? String.valueOf((long) bound) : String.valueOf(bound);
+    }
+}
@@ -0,0 +1,201 @@
+package imagecreator;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Асинхронний журнал застосунку. Потоки обробки лише кладуть запис в обмежену
+ * чергу й ніколи не чекають на консоль, файл чи EDT: записи доставляються
+ * приймачам (LogSink) пакетами з окремого потоку. Коли черга переповнена,
+ * записи відкидаються, а їхня кількість повідомляється пізніше.
+ */
+public final class Log {
+    /**
+     * Рівні журналу в порядку зростання важливості
+     */
+    public enum Level {
+        DEBUG, INFO, WARN, ERROR;
+
+        public static Level parse(String value) {
+            return valueOf(value.trim().toUpperCase());
+        }
+    }
+
+    /**
+     * Один запис журналу
+     */
+    public static final class Record {
+        private final long timestampMillis;
+        private final Level level;
+        private final String thread;
+        private final String message;
+
+        Record(long timestampMillis, Level level, String thread, String message) {
+            this.timestampMillis = timestampMillis;
+            this.level = level;
+            this.thread = thread;
+            this.message = message;
+        }
+
+        public long getTimestampMillis() {
+            return timestampMillis;
+        }
+
+        public Level getLevel() {
+            return level;
+        }
+
+        public String getThread() {
+            return thread;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        /** Повний рядок для файлу: час, рівень, потік, повідомлення */
+        public String format() {
+            return Instant.ofEpochMilli(timestampMillis) + " " + level + " [" + thread + "] " + message;
+        }
+    }
+
+    private static final int QUEUE_CAPACITY = 16384;
+    private static final int BATCH_SIZE = 1024;
+
+    private static final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private static final List<LogSink> sinks = new CopyOnWriteArrayList<>();
+    private static final AtomicLong dropped = new AtomicLong();
+    private static volatile Level threshold = Level.INFO;
+
+    static {
+        sinks.add(new ConsoleLogSink());
+        Thread dispatcher = new Thread(Log::dispatch, "log-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    private Log() {
+    }
+
+    public static void debug(String message) {
+        log(Level.DEBUG, message);
+    }
+
+    public static void info(String message) {
+        log(Level.INFO, message);
+    }
+
+    public static void warn(String message) {
+        log(Level.WARN, message);
+    }
+
+    public static void error(String message) {
+        log(Level.ERROR, message);
+    }
+
+    public static boolean isEnabled(Level level) {
+        return level.compareTo(threshold) >= 0;
+    }
+
+    public static void log(Level level, String message) {
+        if (!isEnabled(level)) {
+            return;
+        }
+        Record record = new Record(System.currentTimeMillis(), level,
+                Thread.currentThread().getName(), message);
+        if (!queue.offer(record)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    public static void setLevel(Level level) {
+        threshold = level;
+    }
+
+    public static Level getLevel() {
+        return threshold;
+    }
+
+    public static void addSink(LogSink sink) {
+        sinks.add(sink);
+    }
+
+    public static void removeSink(LogSink sink) {
+        sinks.remove(sink);
+    }
+
+    /**
+     * Замінює всі приймачі (наприклад, щоб прибрати консольний)
+     */
+    public static void setSinks(List<LogSink> newSinks) {
+        sinks.clear();
+        sinks.addAll(newSinks);
+    }
+
+    /**
+     * Чекає, доки записи, додані до цього виклику, дійдуть до приймачів.
+     * Викликається перед завершенням процесу.
+     */
+    public static void flush() {
+        CountDownLatch latch = new CountDownLatch(1);
+        try {
+            if (queue.offer(latch, 5, TimeUnit.SECONDS)) {
+                latch.await(5, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void dispatch() {
+        List<Object> drained = new ArrayList<>(BATCH_SIZE);
+        List<Record> batch = new ArrayList<>(BATCH_SIZE);
+        while (true) {
+            try {
+                drained.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(drained, BATCH_SIZE - 1);
+
+            long lost = dropped.getAndSet(0);
+            if (lost > 0) {
+                batch.add(new Record(System.currentTimeMillis(), Level.WARN, "log-dispatcher",
+                        lost + " log message(s) dropped, log queue was full"));
+            }
+            for (Object item : drained) {
+                if (item instanceof Record) {
+                    batch.add((Record) item);
+                } else {
+                    // Маркер flush: все, що було перед ним, спершу доставляється
+                    deliver(batch);
+                    batch.clear();
+                    ((CountDownLatch) item).countDown();
+                }
+            }
+            deliver(batch);
+            batch.clear();
+            drained.clear();
+        }
+    }
+
+    private static void deliver(List<Record> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        for (LogSink sink : sinks) {
+            try {
+                sink.write(batch);
+            } catch (RuntimeException e) {
+                // Несправний приймач не повинен зупиняти журнал
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package imagecreator;
+
+import java.util.List;
+
+/**
+ * Приймач записів журналу. Викликається лише з потоку журналу,
+ * тому реалізаціям не потрібна синхронізація між собою.
+ */
+public interface LogSink {
+    /**
+     * Обробляє пакет записів; список дійсний лише під час виклику
+     */
+    void write(List<Log.Record> batch);
+}
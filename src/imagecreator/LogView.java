@@ -0,0 +1,88 @@
+package imagecreator;
+
+import javax.swing.JTextArea;
+import javax.swing.SwingUtilities;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Element;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Приймач журналу для GUI: тримає в JTextArea лише останні maxLines рядків
+ * (кільцевий буфер) і оновлює її одним invokeLater на пакет, а не на рядок.
+ * Поки EDT не забрав попередній пакет, нові рядки додаються до нього.
+ */
+public class LogView implements LogSink {
+    private final JTextArea textArea;
+    private final int maxLines;
+    private final Object lock = new Object();
+    private List<String> pending = new ArrayList<>();
+    private boolean scheduled;
+
+    public LogView(JTextArea textArea, int maxLines) {
+        this.textArea = textArea;
+        this.maxLines = maxLines;
+    }
+
+    @Override
+    public void write(List<Log.Record> batch) {
+        synchronized (lock) {
+            for (Log.Record record : batch) {
+                pending.add(format(record));
+            }
+            // Далі за maxLines рядків все одно не буде видно
+            if (pending.size() > maxLines) {
+                pending = new ArrayList<>(pending.subList(pending.size() - maxLines, pending.size()));
+            }
+            if (scheduled) {
+                return;
+            }
+            scheduled = true;
+        }
+        SwingUtilities.invokeLater(this::flushToTextArea);
+    }
+
+    /**
+     * Повідомлення GUI, що не проходять через журнал, теж потрапляють у кільцевий буфер
+     */
+    public void append(String text) {
+        textArea.append(text);
+        trim();
+    }
+
+    private void flushToTextArea() {
+        List<String> lines;
+        synchronized (lock) {
+            lines = pending;
+            pending = new ArrayList<>();
+            scheduled = false;
+        }
+        StringBuilder text = new StringBuilder();
+        for (String line : lines) {
+            text.append(line).append('\n');
+        }
+        textArea.append(text.toString());
+        trim();
+        textArea.setCaretPosition(textArea.getDocument().getLength());
+    }
+
+    private void trim() {
+        Element root = textArea.getDocument().getDefaultRootElement();
+        int excess = root.getElementCount() - maxLines;
+        if (excess > 0) {
+            try {
+                textArea.getDocument().remove(0, root.getElement(excess - 1).getEndOffset());
+            } catch (BadLocationException e) {
+                // Межі взято з самого документа
+            }
+        }
+    }
+
+    private static String format(Log.Record record) {
+        return switch (record.getLevel()) {
+            case WARN -> "WARNING: " + record.getMessage();
+            case ERROR -> "ERROR: " + record.getMessage();
+            default -> record.getMessage();
+        };
+    }
+}
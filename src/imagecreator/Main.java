@@ -1,3 +1,5 @@
+package imagecreator;
+
 import javax.swing.SwingUtilities;
 import javax.swing.UIManager;
 import javax.swing.UnsupportedLookAndFeelException;
@@ -9,6 +11,15 @@ import javax.swing.UnsupportedLookAndFeelException;
 public class Main {
 
     public static void main(String[] args) {
+        // Будь-які аргументи командного рядка запускають headless-режим без AWT/Swing
+        if (args.length > 0) {
+            System.setProperty("java.awt.headless", "true");
+            setUTF8Encoding();
+            int exitCode = ImageCreatorCLI.run(args);
+            Log.flush();
+            System.exit(exitCode);
+        }
+
         // Встановлення UTF-8 кодування для консолі
         setUTF8Encoding();
 
@@ -18,16 +29,16 @@ public class Main {
         // Запуск GUI в Event Dispatch Thread
         SwingUtilities.invokeLater(() -> {
             try {
-                System.out.println("Starting ImageCreator...");
-                System.out.println("Java version: " + System.getProperty("java.version"));
-                System.out.println("OS: " + System.getProperty("os.name"));
-                System.out.println("=" .repeat(50) + "\n");
-
                 ImageCreatorGUI gui = new ImageCreatorGUI();
                 gui.setVisible(true);
 
+                Log.info("Starting ImageCreator...");
+                Log.info("Java version: " + System.getProperty("java.version"));
+                Log.info("OS: " + System.getProperty("os.name"));
+                Log.info("=".repeat(50) + "\n");
+
             } catch (Exception e) {
-                System.err.println("ERROR starting application: " + e.getMessage());
+                Log.error("Starting application: " + e.getMessage());
                 e.printStackTrace();
             }
         });
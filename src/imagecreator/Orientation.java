@@ -0,0 +1,117 @@
+package imagecreator;
+
+import java.awt.Rectangle;
+import java.awt.geom.AffineTransform;
+
+/**
+ * Орієнтація збережених пікселів відносно того, як зображення має відображатися
+ * (тег EXIF Orientation, значення 1..8). Перетворення з координат збереженого
+ * растра (x, y) розміром W x H у координати відображення лінійне:
+ * X = bx * x + cx * y + зсув, Y = by * x + cy * y + зсув, де коефіцієнти 0 або ±1.
+ */
+public enum Orientation {
+    NORMAL(1, 1, 0, 0, 1),
+    FLIP_HORIZONTAL(2, -1, 0, 0, 1),
+    ROTATE_180(3, -1, 0, 0, -1),
+    FLIP_VERTICAL(4, 1, 0, 0, -1),
+    /** Дзеркало відносно головної діагоналі */
+    TRANSPOSE(5, 0, 1, 1, 0),
+    /** Для відображення потрібен поворот на 90° за годинниковою стрілкою */
+    ROTATE_90(6, 0, -1, 1, 0),
+    /** Дзеркало відносно побічної діагоналі */
+    TRANSVERSE(7, 0, -1, -1, 0),
+    /** Для відображення потрібен поворот на 90° проти годинникової стрілки */
+    ROTATE_270(8, 0, 1, -1, 0);
+
+    private final int exifValue;
+    private final int bx;
+    private final int cx;
+    private final int by;
+    private final int cy;
+
+    Orientation(int exifValue, int bx, int cx, int by, int cy) {
+        this.exifValue = exifValue;
+        this.bx = bx;
+        this.cx = cx;
+        this.by = by;
+        this.cy = cy;
+    }
+
+    /**
+     * @return орієнтація за значенням тегу EXIF; невідомі значення — NORMAL
+     */
+    public static Orientation fromExif(int value) {
+        for (Orientation orientation : values()) {
+            if (orientation.exifValue == value) {
+                return orientation;
+            }
+        }
+        return NORMAL;
+    }
+
+    /**
+     * Чи міняються місцями ширина й висота при відображенні
+     */
+    public boolean swapsAxes() {
+        return bx == 0;
+    }
+
+    /**
+     * Розмір у другій системі координат: для поворотів на 90° ширина й висота міняються
+     */
+    public int transformedWidth(int width, int height) {
+        return swapsAxes() ? height : width;
+    }
+
+    public int transformedHeight(int width, int height) {
+        return swapsAxes() ? width : height;
+    }
+
+    /**
+     * Індекс пікселя відображення, куди потрапляє піксель (0, 0) збереженої сітки
+     * width x height, у растрі зі зміщенням offset і довжиною рядка stride
+     */
+    public int origin(int width, int height, int offset, int stride) {
+        int x = (bx < 0 ? width - 1 : 0) + (cx < 0 ? height - 1 : 0);
+        int y = (by < 0 ? width - 1 : 0) + (cy < 0 ? height - 1 : 0);
+        return offset + y * stride + x;
+    }
+
+    /**
+     * Зміна індексу пікселя відображення при кроці x + 1 у збереженій сітці
+     */
+    public int stepX(int stride) {
+        return bx + by * stride;
+    }
+
+    /**
+     * Зміна індексу пікселя відображення при кроці y + 1 у збереженій сітці
+     */
+    public int stepY(int stride) {
+        return cx + cy * stride;
+    }
+
+    /**
+     * Перетворення неперервних координат збереженої сітки width x height у координати
+     * відображення (для Graphics2D і перерахунку прямокутників)
+     */
+    public AffineTransform toDisplay(int width, int height) {
+        double tx = (bx < 0 ? width : 0) + (cx < 0 ? height : 0);
+        double ty = (by < 0 ? width : 0) + (cy < 0 ? height : 0);
+        return new AffineTransform(bx, by, cx, cy, tx, ty);
+    }
+
+    /**
+     * Прямокутник у координатах відображення, перерахований у координати збереженого
+     * растра width x height (наприклад, область обрізання для декодера)
+     */
+    public Rectangle toStored(Rectangle display, int width, int height) {
+        if (this == NORMAL) {
+            return new Rectangle(display);
+        }
+        // Обернене перетворення: повороти на 90° міняються місцями, решта самообернені
+        Orientation inverse = this == ROTATE_90 ? ROTATE_270 : this == ROTATE_270 ? ROTATE_90 : this;
+        return inverse.toDisplay(transformedWidth(width, height), transformedHeight(width, height))
+                .createTransformedShape(display).getBounds();
+    }
+}
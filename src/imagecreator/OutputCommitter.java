@@ -0,0 +1,218 @@
+package imagecreator;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Фіналізація результатів: кожен варіант пишеться в унікальний тимчасовий файл
+ * у вихідній директорії й одним атомарним переміщенням стає кінцевим файлом.
+ * Номер файлу призначається при постановці задачі, тому кінцеве ім'я відоме
+ * заздалегідь, фіналізація виконується паралельно в потоках обробки, а імена
+ * не залежать від порядку завершення задач.
+ */
+public class OutputCommitter implements AutoCloseable {
+    /** Префікс тимчасових файлів; такі файли після збою видаляються при наступному запуску */
+    static final String TEMP_PREFIX = ".imagecreator-tmp-";
+    private static final String LOCK_FILE = ".imagecreator.lock";
+
+    private final File outputDirectory;
+    private final AtomicInteger committedCount = new AtomicInteger(0);
+    private volatile OutputManifest manifest;
+    private FileChannel lockChannel;
+    private FileLock lock;
+
+    public OutputCommitter(File outputDirectory) {
+        this.outputDirectory = outputDirectory;
+    }
+
+    /**
+     * Захоплює блокування вихідної директорії та видаляє тимчасові файли,
+     * що залишилися після аварійного завершення попереднього запуску.
+     * Якщо директорію вже використовує інший процес, прибирання пропускається,
+     * щоб не зачепити його незавершені файли.
+     */
+    public void recoverOrphans() {
+        try {
+            lockChannel = FileChannel.open(new File(outputDirectory, LOCK_FILE).toPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            lock = lockChannel.tryLock();
+        } catch (IOException | OverlappingFileLockException e) {
+            lock = null;
+        }
+        if (lock == null) {
+            close();
+            Log.info("Output directory is in use by another job, temp cleanup skipped");
+            return;
+        }
+
+        int removed = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(outputDirectory.toPath(),
+                TEMP_PREFIX + "*")) {
+            for (Path orphan : stream) {
+                if (Files.deleteIfExists(orphan)) removed++;
+            }
+        } catch (IOException e) {
+            Log.warn("Temp cleanup failed: " + e.getMessage());
+        }
+
+        if (removed > 0) {
+            Log.info("Removed " + removed + " orphaned temp file(s) from a previous run");
+        }
+    }
+
+    /**
+     * Створює унікальний тимчасовий файл для варіанта та обчислює його кінцеве ім'я
+     */
+    public ResizedOutput prepare(ImageTask task, OutputSpec spec, String format) throws IOException {
+        Path temp = createTempFile(outputDirectory.toPath(), "." + format);
+        File finalFile = new File(outputDirectory, finalName(task, spec, format));
+        return new ResizedOutput(temp.toFile(), finalFile);
+    }
+
+    /**
+     * Створює порожній тимчасовий файл з префіксом TEMP_PREFIX. На відміну від
+     * Files.createTempFile, права файлу задає umask (зазвичай rw-r--r--), а не 0600:
+     * атомарне переміщення зберігає їх у кінцевому файлі, який мають читати
+     * вебсервер, node_exporter чи інші користувачі.
+     */
+    static Path createTempFile(Path directory, String suffix) throws IOException {
+        while (true) {
+            Path temp = directory.resolve(TEMP_PREFIX
+                    + Long.toUnsignedString(ThreadLocalRandom.current().nextLong()) + suffix);
+            try {
+                return Files.createFile(temp);
+            } catch (FileAlreadyExistsException e) {
+                // Вкрай малоймовірний збіг імен: пробуємо інше
+            }
+        }
+    }
+
+    /**
+     * Переміщує всі варіанти джерела у їхні кінцеві імена
+     *
+     * @param fingerprint відбиток джерела для маніфесту або null
+     * @return кінцеві файли
+     */
+    public List<File> commit(ImageTask task, List<ResizedOutput> outputs,
+                             OutputManifest.Fingerprint fingerprint) throws IOException {
+        List<File> committed = new ArrayList<>(outputs.size());
+        try {
+            for (ResizedOutput output : outputs) {
+                move(output.getTempFile().toPath(), output.getFinalFile().toPath());
+                committed.add(output.getFinalFile());
+                Log.debug("Committed: " + output.getFinalFile().getName());
+            }
+        } catch (IOException e) {
+            discard(outputs);
+            throw e;
+        }
+
+        committedCount.incrementAndGet();
+
+        OutputManifest currentManifest = manifest;
+        if (currentManifest != null && fingerprint != null) {
+            List<String> names = new ArrayList<>(committed.size());
+            for (File file : committed) {
+                names.add(file.getName());
+            }
+            currentManifest.record(task, fingerprint, task.getSequenceNumber(), names);
+        }
+        return committed;
+    }
+
+    /**
+     * Видаляє тимчасові файли, що не дійшли до кінцевих імен
+     */
+    public void discard(List<ResizedOutput> outputs) {
+        for (ResizedOutput output : outputs) {
+            try {
+                Files.deleteIfExists(output.getTempFile().toPath());
+            } catch (IOException e) {
+                Log.warn("Cannot delete temp file " + output.getTempFile().getName());
+            }
+        }
+    }
+
+    /**
+     * Кінцеве ім'я варіанта: префікс, номер задачі, суфікс варіанта та розширення
+     */
+    static String finalName(ImageTask task, OutputSpec spec, String format) {
+        return task.getOutputPrefix() + "_" + String.format("%04d", task.getSequenceNumber())
+                + spec.getSuffix() + "." + format;
+    }
+
+    /**
+     * Перевіряє, що варіанти задачі отримають різні кінцеві імена. Розширення без
+     * явного формату береться з джерела, тож збіг можливий лише для частини файлів;
+     * без перевірки один варіант мовчки замінив би інший при переміщенні.
+     *
+     * @param formats формат кожного варіанта у порядку task.getOutputSpecs()
+     */
+    static void checkFinalNames(ImageTask task, List<String> formats) throws IOException {
+        List<OutputSpec> specs = task.getOutputSpecs();
+        Set<String> names = new HashSet<>();
+        for (int i = 0; i < specs.size(); i++) {
+            String name = finalName(task, specs.get(i), formats.get(i));
+            // Файлові системи Windows і macOS не розрізняють регістр
+            if (!names.add(name.toLowerCase())) {
+                throw new IOException("Output specs produce the same file name " + name);
+            }
+        }
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Маніфест, у який записуються фіналізовані результати (null — не записувати)
+     */
+    public void setManifest(OutputManifest manifest) {
+        this.manifest = manifest;
+    }
+
+    public int getCommittedCount() {
+        return committedCount.get();
+    }
+
+    /**
+     * Звільняє блокування вихідної директорії
+     */
+    @Override
+    public void close() {
+        try {
+            if (lock != null) {
+                lock.release();
+            }
+            if (lockChannel != null) {
+                lockChannel.close();
+            }
+        } catch (IOException e) {
+            Log.warn("Cannot release output directory lock: " + e.getMessage());
+        } finally {
+            lock = null;
+            lockChannel = null;
+        }
+    }
+}
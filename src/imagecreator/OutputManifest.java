@@ -0,0 +1,276 @@
+package imagecreator;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Маніфест у вихідній директорії: для кожного джерела зберігає розмір, час
+ * модифікації, хеш вмісту, параметри обробки та створені файли. Дозволяє при
+ * повторному запуску пропускати джерела, що не змінилися.
+ */
+public class OutputManifest {
+    public static final String FILE_NAME = ".imagecreator-manifest";
+    private static final String HEADER = "# imagecreator manifest v1";
+
+    private final File outputDirectory;
+    private final File manifestFile;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private volatile boolean dirty;
+
+    public OutputManifest(File outputDirectory) {
+        this.outputDirectory = outputDirectory;
+        this.manifestFile = new File(outputDirectory, FILE_NAME);
+    }
+
+    /**
+     * Відбиток джерела: розмір, час модифікації та хеш вмісту
+     */
+    public static class Fingerprint {
+        final long size;
+        final long modified;
+        final String hash;
+
+        Fingerprint(long size, long modified, String hash) {
+            this.size = size;
+            this.modified = modified;
+            this.hash = hash;
+        }
+
+        /**
+         * Розмір і час читаються до хешування, щоб зміна файлу під час
+         * обчислення хешу виявилась при наступному запуску
+         */
+        public static Fingerprint of(File file) throws IOException {
+            long size = file.length();
+            long modified = file.lastModified();
+            return new Fingerprint(size, modified, ContentHash.of(file));
+        }
+
+        /**
+         * Відбиток з уже прочитаного вмісту; size і modified мають бути зняті до читання
+         */
+        public static Fingerprint of(long size, long modified, ByteBuffer content) {
+            return new Fingerprint(size, modified, ContentHash.of(content));
+        }
+    }
+
+    private static class Entry {
+        final Fingerprint fingerprint;
+        final String parameters;
+        final int sequence;
+        final List<String> outputs;
+
+        Entry(Fingerprint fingerprint, String parameters, int sequence, List<String> outputs) {
+            this.fingerprint = fingerprint;
+            this.parameters = parameters;
+            this.sequence = sequence;
+            this.outputs = outputs;
+        }
+    }
+
+    public void load() throws IOException {
+        if (!manifestFile.isFile()) {
+            return;
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(manifestFile.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty() || line.startsWith("#")) continue;
+
+                String[] fields = line.split("\t", -1);
+                if (fields.length != 7) {
+                    Log.warn("Skipping malformed manifest line");
+                    continue;
+                }
+                try {
+                    Fingerprint fingerprint = new Fingerprint(Long.parseLong(fields[1]),
+                            Long.parseLong(fields[2]), fields[3]);
+                    List<String> outputs = new ArrayList<>();
+                    for (String output : fields[6].split("/")) {
+                        if (!output.isEmpty()) outputs.add(unescape(output));
+                    }
+                    entries.put(unescape(fields[0]), new Entry(fingerprint, unescape(fields[4]),
+                            Integer.parseInt(fields[5]), outputs));
+                } catch (NumberFormatException e) {
+                    Log.warn("Skipping malformed manifest line");
+                }
+            }
+        }
+        Log.info("Manifest loaded: " + entries.size() + " entries");
+    }
+
+    /**
+     * Перевіряє, чи джерело оброблене з тими самими параметрами і не змінилося.
+     * Хеш вмісту обчислюється лише тоді, коли розмір збігається, а час модифікації ні.
+     */
+    public boolean isUpToDate(ImageTask task) {
+        File source = task.getSourceFile();
+        Entry entry = entries.get(key(source));
+        if (entry == null || !entry.parameters.equals(task.getParametersKey())) {
+            return false;
+        }
+        for (String output : entry.outputs) {
+            if (!new File(outputDirectory, output).isFile()) {
+                return false;
+            }
+        }
+
+        long size = source.length();
+        if (size != entry.fingerprint.size) {
+            return false;
+        }
+        long modified = source.lastModified();
+        if (modified == entry.fingerprint.modified) {
+            return true;
+        }
+
+        try {
+            String hash = ContentHash.of(source);
+            if (!hash.equals(entry.fingerprint.hash)) {
+                return false;
+            }
+            // Вміст той самий (наприклад, файл скопійовано заново) — оновлюємо час
+            entries.put(key(source), new Entry(new Fingerprint(size, modified, hash),
+                    entry.parameters, entry.sequence, entry.outputs));
+            dirty = true;
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Записує результат обробки джерела. Файли попереднього запису, які не
+     * збігаються з новими, видаляються.
+     */
+    public void record(ImageTask task, Fingerprint fingerprint, int sequence, List<String> outputs) {
+        Entry previous = entries.put(key(task.getSourceFile()),
+                new Entry(fingerprint, task.getParametersKey(), sequence, outputs));
+        dirty = true;
+
+        if (previous != null) {
+            for (String output : previous.outputs) {
+                if (!outputs.contains(output)) {
+                    File stale = new File(outputDirectory, output);
+                    if (stale.isFile() && stale.delete()) {
+                        Log.info("Removed stale output: " + output);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Номер, під яким джерело було збережене раніше, або 0
+     */
+    public int getSequence(File source) {
+        Entry entry = entries.get(key(source));
+        return entry != null ? entry.sequence : 0;
+    }
+
+    /**
+     * Найбільший номер, вже використаний у вихідній директорії
+     */
+    public int getMaxSequence() {
+        int max = 0;
+        for (Entry entry : entries.values()) {
+            max = Math.max(max, entry.sequence);
+        }
+        return max;
+    }
+
+    /**
+     * Атомарно зберігає маніфест: запис у тимчасовий файл і заміна
+     */
+    public synchronized void save() throws IOException {
+        if (!dirty) {
+            return;
+        }
+        dirty = false;
+
+        Path temp = OutputCommitter.createTempFile(outputDirectory.toPath(), ".manifest");
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            writer.write(HEADER);
+            writer.newLine();
+            for (Map.Entry<String, Entry> item : entries.entrySet()) {
+                Entry entry = item.getValue();
+                StringBuilder outputs = new StringBuilder();
+                for (String output : entry.outputs) {
+                    if (outputs.length() > 0) outputs.append('/');
+                    outputs.append(escape(output));
+                }
+                writer.write(String.join("\t", Arrays.asList(
+                        escape(item.getKey()),
+                        String.valueOf(entry.fingerprint.size),
+                        String.valueOf(entry.fingerprint.modified),
+                        entry.fingerprint.hash,
+                        escape(entry.parameters),
+                        String.valueOf(entry.sequence),
+                        outputs.toString())));
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            dirty = true;
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+
+        Files.move(temp, manifestFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static String key(File source) {
+        return source.getAbsolutePath();
+    }
+
+    /**
+     * Екранує символи-роздільники формату (табуляція, перенос рядка).
+     * Імена файлів не можуть містити '/', тому він розділяє список результатів.
+     */
+    static String escape(String value) {
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\': sb.append("\\\\"); break;
+                case '\t': sb.append("\\t"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                default: sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    static String unescape(String value) {
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char n = value.charAt(++i);
+                switch (n) {
+                    case 't': sb.append('\t'); break;
+                    case 'n': sb.append('\n'); break;
+                    case 'r': sb.append('\r'); break;
+                    default: sb.append(n);
+                }
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
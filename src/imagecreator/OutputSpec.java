@@ -0,0 +1,93 @@
+package imagecreator;
+
+/**
+ * Опис одного вихідного варіанта зображення: розмір, формат, якість та суфікс імені
+ */
+public class OutputSpec {
+    private final int width;
+    private final int height;
+    private final String format;
+    private final float quality;
+    private final String suffix;
+
+    /**
+     * @param format  формат файлу ("jpg", "png"...) або null, щоб зберегти формат джерела
+     * @param quality якість стиснення 0..1 або -1 для значення кодувальника за замовчуванням
+     * @param suffix  суфікс, що додається до імені файлу після номера
+     */
+    public OutputSpec(int width, int height, String format, float quality, String suffix) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Output size must be positive: " + width + "x" + height);
+        }
+        if (quality > 1.0f) {
+            throw new IllegalArgumentException("Quality must be in range 0..1: " + quality);
+        }
+        this.width = width;
+        this.height = height;
+        this.format = format == null || format.isEmpty() ? null : format.toLowerCase();
+        this.quality = quality;
+        this.suffix = suffix == null ? "" : suffix;
+    }
+
+    public OutputSpec(int width, int height) {
+        this(width, height, null, -1f, "");
+    }
+
+    /**
+     * Розбирає опис виду WxH[:format[:quality[:suffix]]], наприклад "200x200:jpg:0.85:_s"
+     */
+    public static OutputSpec parse(String value) {
+        String[] parts = value.split(":", -1);
+        String[] size = parts[0].toLowerCase().split("x");
+        if (size.length != 2) {
+            throw new IllegalArgumentException("Invalid output size: " + value);
+        }
+        try {
+            int width = Integer.parseInt(size[0].trim());
+            int height = Integer.parseInt(size[1].trim());
+            String format = parts.length > 1 ? parts[1].trim() : null;
+            float quality = parts.length > 2 && !parts[2].isEmpty() ? Float.parseFloat(parts[2]) : -1f;
+            String suffix = parts.length > 3 ? parts[3] : "";
+            return new OutputSpec(width, height, format, quality, suffix);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid output spec: " + value);
+        }
+    }
+
+    public OutputSpec withSuffix(String suffix) {
+        return new OutputSpec(width, height, format, quality, suffix);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public float getQuality() {
+        return quality;
+    }
+
+    public String getSuffix() {
+        return suffix;
+    }
+
+    /**
+     * Формат виводу: заданий явно або формат джерела
+     */
+    public String resolveFormat(String sourceFormat) {
+        return format != null ? format : sourceFormat;
+    }
+
+    @Override
+    public String toString() {
+        return width + "x" + height + ":" + (format == null ? "" : format) + ":"
+                + (quality < 0 ? "" : String.valueOf(quality)) + ":" + suffix;
+    }
+}
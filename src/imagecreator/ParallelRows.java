@@ -0,0 +1,59 @@
+package imagecreator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Розбиття проходу масштабування великого зображення на діапазони рядків, що
+ * виконуються в тому самому ForkJoinPool, де працюють задачі цілих зображень.
+ * Підзадачі потрапляють у чергу поточного потоку: вільні потоки пулу їх крадуть,
+ * а в зайнятому пулі потік виконує їх сам, тож пакет дрібних файлів обробляється
+ * як і раніше. Поза ForkJoinPool прохід виконується послідовно.
+ */
+public final class ParallelRows {
+    /** Мінімальний обсяг роботи однієї підзадачі (пікселів цілі × відводів фільтра) */
+    static final long MIN_WORK_PER_TASK = 1L << 20;
+    /** Підзадач на потік пулу: запас, щоб потоки закінчували приблизно одночасно */
+    private static final int TASKS_PER_THREAD = 4;
+
+    private ParallelRows() {
+    }
+
+    /**
+     * Обробка рядків [rowFrom, rowTo); різні діапазони не повинні писати в ті самі пікселі
+     */
+    @FunctionalInterface
+    public interface RowRange {
+        void run(int rowFrom, int rowTo);
+    }
+
+    /**
+     * Виконує body для рядків [rowFrom, rowTo), за потреби частинами паралельно,
+     * і повертається, коли оброблено всі рядки
+     *
+     * @param workPerRow оцінка роботи на один рядок, щоб не дробити дрібні зображення
+     */
+    public static void forEach(int rowFrom, int rowTo, long workPerRow, RowRange body) {
+        int rows = rowTo - rowFrom;
+        ForkJoinPool pool = ForkJoinTask.getPool();
+        long tasks = 1;
+        if (pool != null) {
+            tasks = Math.min(Math.min(rows, (long) pool.getParallelism() * TASKS_PER_THREAD),
+                    rows * workPerRow / MIN_WORK_PER_TASK);
+        }
+        if (tasks <= 1) {
+            body.run(rowFrom, rowTo);
+            return;
+        }
+
+        List<ForkJoinTask<?>> subtasks = new ArrayList<>((int) tasks);
+        for (long i = 0; i < tasks; i++) {
+            int from = rowFrom + (int) (rows * i / tasks);
+            int to = rowFrom + (int) (rows * (i + 1) / tasks);
+            subtasks.add(ForkJoinTask.adapt(() -> body.run(from, to)));
+        }
+        ForkJoinTask.invokeAll(subtasks);
+    }
+}
@@ -0,0 +1,322 @@
+package imagecreator;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Метрики конвеєра обробки: лічильники зображень, тривалості етапів,
+ * обсяги прочитаних і записаних байтів та пропускна здатність.
+ * Оновлюється з потоків пулу, читається GUI, CLI та експортом для Prometheus.
+ */
+public class PipelineMetrics {
+    /**
+     * Етапи обробки одного джерела
+     */
+    public enum Stage {
+        READ, DECODE, SCALE, ENCODE, WRITE, COMMIT;
+
+        String label() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private final LongAdder queued = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder cancelled = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+    private final Map<Stage, LatencyHistogram> stages = new EnumMap<>(Stage.class);
+    private final Map<String, EncodedFormat> encodedFormats = new ConcurrentHashMap<>();
+    private final AtomicLong startNanos = new AtomicLong();
+    private volatile long finishNanos;
+    private volatile int workerThreads;
+    /** Метрики служби, в які додатково потрапляють усі події, або null */
+    private final PipelineMetrics parent;
+
+    public PipelineMetrics() {
+        this(null);
+    }
+
+    /**
+     * @param parent спільні метрики кількох обробок (JobService) або null
+     */
+    public PipelineMetrics(PipelineMetrics parent) {
+        this.parent = parent;
+        for (Stage stage : Stage.values()) {
+            stages.put(stage, new LatencyHistogram());
+        }
+    }
+
+    /** Задача передана в пул; перша задача запускає відлік пропускної здатності */
+    public void imageQueued() {
+        startNanos.compareAndSet(0, System.nanoTime());
+        finishNanos = 0;
+        queued.increment();
+        if (parent != null) parent.imageQueued();
+    }
+
+    public void imageCompleted() {
+        completed.increment();
+        if (parent != null) parent.imageCompleted();
+    }
+
+    public void imageFailed() {
+        failed.increment();
+        if (parent != null) parent.imageFailed();
+    }
+
+    public void imageSkipped() {
+        skipped.increment();
+        if (parent != null) parent.imageSkipped();
+    }
+
+    /** Задачу передано в пул, але обробку скасовано до запису результату */
+    public void imageCancelled() {
+        cancelled.increment();
+        if (parent != null) parent.imageCancelled();
+    }
+
+    /** Усі варіанти джерела знайдено в кеші мініатюр */
+    public void cacheHit() {
+        cacheHits.increment();
+        if (parent != null) parent.cacheHit();
+    }
+
+    public void cacheMiss() {
+        cacheMisses.increment();
+        if (parent != null) parent.cacheMiss();
+    }
+
+    public void bytesRead(long bytes) {
+        bytesRead.add(bytes);
+        if (parent != null) parent.bytesRead(bytes);
+    }
+
+    public void bytesWritten(long bytes) {
+        bytesWritten.add(bytes);
+        if (parent != null) parent.bytesWritten(bytes);
+    }
+
+    /**
+     * Закодований варіант: розмір результату та час кодування за форматом виводу
+     */
+    public void recordEncoded(String format, int bytes, long nanos) {
+        EncodedFormat stats = encodedFormats.computeIfAbsent(format, key -> new EncodedFormat());
+        stats.files.increment();
+        stats.bytes.add(bytes);
+        stats.nanos.add(nanos);
+        if (parent != null) parent.recordEncoded(format, bytes, nanos);
+    }
+
+    public void recordStage(Stage stage, long nanos) {
+        stages.get(stage).record(nanos);
+        if (parent != null) parent.recordStage(stage, nanos);
+    }
+
+    /** Фіксує момент завершення, щоб пропускна здатність не падала після обробки */
+    public void markFinished() {
+        if (startNanos.get() != 0) {
+            finishNanos = System.nanoTime();
+        }
+    }
+
+    public void setWorkerThreads(int workerThreads) {
+        this.workerThreads = workerThreads;
+    }
+
+    public int getWorkerThreads() {
+        return workerThreads;
+    }
+
+    public long getQueued() {
+        return queued.sum();
+    }
+
+    public long getCompleted() {
+        return completed.sum();
+    }
+
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    public long getSkipped() {
+        return skipped.sum();
+    }
+
+    public long getCancelled() {
+        return cancelled.sum();
+    }
+
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    public long getCacheMisses() {
+        return cacheMisses.sum();
+    }
+
+    /** Задачі в пулі: передані, але ще не завершені */
+    public long getInFlight() {
+        return Math.max(0, queued.sum() - completed.sum() - failed.sum() - cancelled.sum());
+    }
+
+    public long getBytesRead() {
+        return bytesRead.sum();
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    public LatencyHistogram getStage(Stage stage) {
+        return stages.get(stage);
+    }
+
+    public double getElapsedSeconds() {
+        long start = startNanos.get();
+        if (start == 0) {
+            return 0;
+        }
+        long end = finishNanos != 0 ? finishNanos : System.nanoTime();
+        return (end - start) / 1e9;
+    }
+
+    public double getImagesPerSecond() {
+        double elapsed = getElapsedSeconds();
+        return elapsed > 0 ? getCompleted() / elapsed : 0;
+    }
+
+    /**
+     * Короткий підсумок для консолі та GUI
+     */
+    public String formatSummary() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format(Locale.ROOT, "Throughput: %.2f images/sec (%d worker threads)%n",
+                getImagesPerSecond(), getWorkerThreads()));
+        out.append(String.format(Locale.ROOT, "Read: %.1f MB, written: %.1f MB%n",
+                getBytesRead() / 1048576.0, getBytesWritten() / 1048576.0));
+        if (getCacheHits() + getCacheMisses() > 0) {
+            out.append(String.format(Locale.ROOT, "Thumbnail cache: %d hit(s), %d miss(es)%n",
+                    getCacheHits(), getCacheMisses()));
+        }
+        for (Stage stage : Stage.values()) {
+            LatencyHistogram histogram = stages.get(stage);
+            out.append(String.format(Locale.ROOT, "%-7s n=%d avg=%.1f ms p50<=%s p95<=%s%n",
+                    stage.label() + ":", histogram.getCount(), histogram.getMeanMillis(),
+                    formatBound(histogram.quantileUpperBoundMillis(0.5)),
+                    formatBound(histogram.quantileUpperBoundMillis(0.95))));
+        }
+        for (Map.Entry<String, EncodedFormat> entry : new TreeMap<>(encodedFormats).entrySet()) {
+            EncodedFormat stats = entry.getValue();
+            long files = Math.max(1, stats.files.sum());
+            out.append(String.format(Locale.ROOT, "Output %s: %d file(s), avg %.1f KB, avg encode %.1f ms%n",
+                    entry.getKey(), stats.files.sum(), stats.bytes.sum() / 1024.0 / files,
+                    stats.nanos.sum() / 1e6 / files));
+        }
+        return out.toString();
+    }
+
+    private static String formatBound(double millis) {
+        return Double.isInfinite(millis) ? "inf" : String.format(Locale.ROOT, "%.1f ms", millis);
+    }
+
+    /**
+     * Метрики у текстовому форматі Prometheus (exposition format 0.0.4)
+     */
+    public String toPrometheus() {
+        StringBuilder out = new StringBuilder();
+        out.append("# HELP imagecreator_images_total Source images by result.\n");
+        out.append("# TYPE imagecreator_images_total counter\n");
+        out.append("imagecreator_images_total{result=\"completed\"} ").append(getCompleted()).append('\n');
+        out.append("imagecreator_images_total{result=\"failed\"} ").append(getFailed()).append('\n');
+        out.append("imagecreator_images_total{result=\"skipped\"} ").append(getSkipped()).append('\n');
+        out.append("imagecreator_images_total{result=\"cancelled\"} ").append(getCancelled()).append('\n');
+        out.append("# HELP imagecreator_images_queued_total Images submitted to the resize pool.\n");
+        out.append("# TYPE imagecreator_images_queued_total counter\n");
+        out.append("imagecreator_images_queued_total ").append(getQueued()).append('\n');
+        out.append("# HELP imagecreator_images_in_flight Images submitted but not finished.\n");
+        out.append("# TYPE imagecreator_images_in_flight gauge\n");
+        out.append("imagecreator_images_in_flight ").append(getInFlight()).append('\n');
+        out.append("# HELP imagecreator_cache_lookups_total Thumbnail cache lookups by result.\n");
+        out.append("# TYPE imagecreator_cache_lookups_total counter\n");
+        out.append("imagecreator_cache_lookups_total{result=\"hit\"} ").append(getCacheHits()).append('\n');
+        out.append("imagecreator_cache_lookups_total{result=\"miss\"} ").append(getCacheMisses()).append('\n');
+        out.append("# HELP imagecreator_bytes_read_total Bytes of source files read.\n");
+        out.append("# TYPE imagecreator_bytes_read_total counter\n");
+        out.append("imagecreator_bytes_read_total ").append(getBytesRead()).append('\n');
+        out.append("# HELP imagecreator_bytes_written_total Bytes of output files written.\n");
+        out.append("# TYPE imagecreator_bytes_written_total counter\n");
+        out.append("imagecreator_bytes_written_total ").append(getBytesWritten()).append('\n');
+        out.append("# HELP imagecreator_images_per_second Completed images per second since the first submission.\n");
+        out.append("# TYPE imagecreator_images_per_second gauge\n");
+        out.append("imagecreator_images_per_second ")
+                .append(String.format(Locale.ROOT, "%.3f", getImagesPerSecond())).append('\n');
+        out.append("# HELP imagecreator_worker_threads Size of the decode/scale/encode pool.\n");
+        out.append("# TYPE imagecreator_worker_threads gauge\n");
+        out.append("imagecreator_worker_threads ").append(getWorkerThreads()).append('\n');
+        Map<String, EncodedFormat> formats = new TreeMap<>(encodedFormats);
+        out.append("# HELP imagecreator_encoded_files_total Output variants encoded, by format.\n");
+        out.append("# TYPE imagecreator_encoded_files_total counter\n");
+        formats.forEach((format, stats) -> out.append("imagecreator_encoded_files_total{format=\"")
+                .append(format).append("\"} ").append(stats.files.sum()).append('\n'));
+        out.append("# HELP imagecreator_encoded_bytes_total Size of encoded output variants, by format.\n");
+        out.append("# TYPE imagecreator_encoded_bytes_total counter\n");
+        formats.forEach((format, stats) -> out.append("imagecreator_encoded_bytes_total{format=\"")
+                .append(format).append("\"} ").append(stats.bytes.sum()).append('\n'));
+        out.append("# HELP imagecreator_encode_seconds_total Time spent encoding output variants, by format.\n");
+        out.append("# TYPE imagecreator_encode_seconds_total counter\n");
+        formats.forEach((format, stats) -> out.append("imagecreator_encode_seconds_total{format=\"")
+                .append(format).append("\"} ")
+                .append(String.format(Locale.ROOT, "%.6f", stats.nanos.sum() / 1e9)).append('\n'));
+        out.append("# HELP imagecreator_stage_duration_seconds Time spent per image in each stage.\n");
+        out.append("# TYPE imagecreator_stage_duration_seconds histogram\n");
+        for (Stage stage : Stage.values()) {
+            stages.get(stage).appendPrometheus(out, "imagecreator_stage_duration_seconds",
+                    "stage=\"" + stage.label() + "\"");
+        }
+        return out.toString();
+    }
+
+    /**
+     * Атомарно перезаписує файл метрик (підходить для textfile collector node_exporter):
+     * читач ніколи не бачить напівзаписаний файл
+     */
+    public void writePrometheus(File file) throws IOException {
+        Path target = file.toPath().toAbsolutePath();
+        Path temp = OutputCommitter.createTempFile(target.getParent(), ".prom");
+        try {
+            try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                writer.write(toPrometheus());
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Лічильники закодованих варіантів одного формату
+     */
+    private static final class EncodedFormat {
+        final LongAdder files = new LongAdder();
+        final LongAdder bytes = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+    }
+}
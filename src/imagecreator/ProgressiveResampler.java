@@ -0,0 +1,89 @@
+package imagecreator;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Поступове зменшення: послідовні проходи 2x2 усереднення, поки джерело вдвічі
+ * більше за ціль, і фінальний білінійний прохід. Перший, найдорожчий крок пише
+ * в окремий буфер і для великих зображень ділиться на діапазони рядків; усі
+ * наступні виконуються на місці в тому самому int[] буфері.
+ */
+public class ProgressiveResampler implements Resampler {
+    private final ConvolutionResampler finalPass =
+            new ConvolutionResampler(ConvolutionResampler.Kernel.TRIANGLE);
+
+    @Override
+    public void resample(BufferedImage source, BufferedImage target, Orientation orientation) {
+        // Зменшення вдвічі йде у збереженій орієнтації, поворот — у фінальному проході
+        int targetWidth = orientation.transformedWidth(target.getWidth(), target.getHeight());
+        int targetHeight = orientation.transformedHeight(target.getWidth(), target.getHeight());
+        int width = source.getWidth();
+        int height = source.getHeight();
+
+        BufferedImage src = Resampler.toIntRgb(source);
+        int[] pixels = Resampler.pixels(src);
+        int offset = Resampler.offset(src);
+        int stride = Resampler.stride(src);
+        int[] scratch = null;
+
+        try {
+            if (width >= targetWidth * 2 && height >= targetHeight * 2) {
+                // На місці рядки не можна обробляти паралельно: запис випереджає читання сусідніх діапазонів
+                scratch = RasterPool.acquireInts((width / 2) * (height / 2));
+                int[] from = pixels;
+                int fromOffset = offset;
+                int fromStride = stride;
+                int fromWidth = width;
+                int[] halved = scratch;
+                ParallelRows.forEach(0, height / 2, (long) width * 2, (rowFrom, rowTo) ->
+                        halve(from, fromOffset, fromStride, fromWidth, rowFrom, rowTo, halved));
+                pixels = halved;
+                offset = 0;
+                width /= 2;
+                height /= 2;
+                stride = width;
+
+                while (width >= targetWidth * 2 && height >= targetHeight * 2) {
+                    halve(pixels, 0, width, width, 0, height / 2, pixels);
+                    width /= 2;
+                    height /= 2;
+                    stride = width;
+                }
+            }
+
+            finalPass.resample(pixels, offset, stride, width, height,
+                    Resampler.pixels(target), Resampler.offset(target), Resampler.stride(target),
+                    target.getWidth(), target.getHeight(), orientation);
+        } finally {
+            RasterPool.releaseInts(scratch);
+            Resampler.releaseCopy(src, source);
+        }
+    }
+
+    /**
+     * Зменшує зображення вдвічі усередненням блоків 2x2 і пише рядки результату
+     * [rowFrom, rowTo). Результат щільно упакований (stride = width / 2) і може
+     * записуватися в той самий масив, якщо рядки обробляються по порядку:
+     * індекс запису ніколи не випереджає індекс читання.
+     */
+    private static void halve(int[] src, int offset, int stride, int width, int rowFrom, int rowTo, int[] dst) {
+        int halfWidth = width / 2;
+        for (int y = rowFrom; y < rowTo; y++) {
+            int row0 = offset + 2 * y * stride;
+            int row1 = row0 + stride;
+            int out = y * halfWidth;
+            for (int x = 0; x < halfWidth; x++) {
+                int p0 = src[row0 + 2 * x];
+                int p1 = src[row0 + 2 * x + 1];
+                int p2 = src[row1 + 2 * x];
+                int p3 = src[row1 + 2 * x + 1];
+                int r = (((p0 >> 16) & 0xFF) + ((p1 >> 16) & 0xFF)
+                        + ((p2 >> 16) & 0xFF) + ((p3 >> 16) & 0xFF) + 2) >> 2;
+                int g = (((p0 >> 8) & 0xFF) + ((p1 >> 8) & 0xFF)
+                        + ((p2 >> 8) & 0xFF) + ((p3 >> 8) & 0xFF) + 2) >> 2;
+                int b = ((p0 & 0xFF) + (p1 & 0xFF) + (p2 & 0xFF) + (p3 & 0xFF) + 2) >> 2;
+                dst[out + x] = (r << 16) | (g << 8) | b;
+            }
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package imagecreator;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Пули растрів для потоків обробки: зображення та проміжні int[] буфери
+ * повертаються після використання і видаються знову наступній задачі того ж потоку
+ * з тими самими розмірами й типом. Це прибирає виділення пам'яті на кожне
+ * зображення при фіксованих розмірах виходу.
+ * Кожен потік має власний пул, тому синхронізація не потрібна; обсяг, що
+ * утримується одним потоком, обмежений MAX_RETAINED_BYTES (найдавніше використані
+ * буфери витісняються). Віртуальні потоки пул не використовують.
+ * Вміст виданого буфера не очищується.
+ */
+public final class RasterPool {
+    static final long MAX_RETAINED_BYTES =
+            Math.min(64L * 1024 * 1024, Runtime.getRuntime().maxMemory() / 32);
+
+    private static final ThreadLocal<RasterPool> POOLS = ThreadLocal.withInitial(RasterPool::new);
+    private static final LongAdder reused = new LongAdder();
+    private static final LongAdder allocated = new LongAdder();
+
+    private record Key(int width, int height, int type) {
+    }
+
+    // Порядок доступу: перший ключ — найдавніше використаний
+    private final Map<Object, ArrayDeque<Object>> free = new LinkedHashMap<>(16, 0.75f, true);
+    private long retainedBytes;
+
+    private RasterPool() {
+    }
+
+    /**
+     * Видає зображення заданого розміру та стандартного типу (BufferedImage.TYPE_*)
+     */
+    public static BufferedImage acquire(int width, int height, int type) {
+        if (!Thread.currentThread().isVirtual()) {
+            Object image = POOLS.get().take(new Key(width, height, type));
+            if (image != null) {
+                return (BufferedImage) image;
+            }
+        }
+        allocated.increment();
+        return new BufferedImage(width, height, type);
+    }
+
+    /**
+     * Повертає зображення в пул поточного потоку. Після виклику його не можна використовувати.
+     */
+    public static void release(BufferedImage image) {
+        if (image == null || image.getType() == BufferedImage.TYPE_CUSTOM
+                || Thread.currentThread().isVirtual()) {
+            return;
+        }
+        Key key = new Key(image.getWidth(), image.getHeight(), image.getType());
+        POOLS.get().put(key, image, bytesOf(image));
+    }
+
+    /**
+     * Видає масив int довжини length (для проміжних буферів масштабування)
+     */
+    public static int[] acquireInts(int length) {
+        if (!Thread.currentThread().isVirtual()) {
+            Object array = POOLS.get().take(length);
+            if (array != null) {
+                return (int[]) array;
+            }
+        }
+        allocated.increment();
+        return new int[length];
+    }
+
+    public static void releaseInts(int[] array) {
+        if (array == null || Thread.currentThread().isVirtual()) {
+            return;
+        }
+        POOLS.get().put(array.length, array, (long) array.length * 4);
+    }
+
+    public static long getReusedCount() {
+        return reused.sum();
+    }
+
+    public static long getAllocatedCount() {
+        return allocated.sum();
+    }
+
+    private Object take(Object key) {
+        ArrayDeque<Object> buffers = free.get(key);
+        if (buffers == null || buffers.isEmpty()) {
+            return null;
+        }
+        Object buffer = buffers.pop();
+        retainedBytes -= sizeOf(buffer);
+        reused.increment();
+        return buffer;
+    }
+
+    private void put(Object key, Object buffer, long bytes) {
+        if (bytes > MAX_RETAINED_BYTES) {
+            return;
+        }
+        free.computeIfAbsent(key, k -> new ArrayDeque<>()).push(buffer);
+        retainedBytes += bytes;
+
+        // Витіснення найдавніше використаних розмірів, доки пул не вміститься в ліміт
+        Iterator<ArrayDeque<Object>> lists = free.values().iterator();
+        while (retainedBytes > MAX_RETAINED_BYTES && lists.hasNext()) {
+            ArrayDeque<Object> buffers = lists.next();
+            while (retainedBytes > MAX_RETAINED_BYTES && !buffers.isEmpty()) {
+                retainedBytes -= sizeOf(buffers.removeLast());
+            }
+            if (buffers.isEmpty()) {
+                lists.remove();
+            }
+        }
+    }
+
+    private static long sizeOf(Object buffer) {
+        return buffer instanceof int[] array ? (long) array.length * 4 : bytesOf((BufferedImage) buffer);
+    }
+
+    private static long bytesOf(BufferedImage image) {
+        DataBuffer data = image.getRaster().getDataBuffer();
+        return (long) data.getSize() * data.getNumBanks() * DataBuffer.getDataTypeSize(data.getDataType()) / 8;
+    }
+}
@@ -0,0 +1,51 @@
+package imagecreator;
+
+import java.awt.RenderingHints;
+
+/**
+ * Режими масштабування: від найшвидшого до найякіснішого
+ */
+public enum ResampleMode {
+    /** Один прохід Java2D з бікубічною інтерполяцією */
+    BICUBIC(new Java2DResampler(RenderingHints.VALUE_INTERPOLATION_BICUBIC),
+            ConvolutionResampler.Kernel.CATMULL_ROM),
+    /** Послідовне зменшення вдвічі та фінальний білінійний прохід */
+    PROGRESSIVE(new ProgressiveResampler(), ConvolutionResampler.Kernel.TRIANGLE),
+    /** Усереднення за площею */
+    AREA_AVERAGE(ConvolutionResampler.Kernel.BOX),
+    /** Фільтр Мітчелла */
+    MITCHELL(ConvolutionResampler.Kernel.MITCHELL),
+    /** Фільтр Ланцоша (3 пелюстки) */
+    LANCZOS3(ConvolutionResampler.Kernel.LANCZOS3);
+
+    private final Resampler resampler;
+    private final ConvolutionResampler.Kernel bandKernel;
+
+    ResampleMode(ConvolutionResampler.Kernel kernel) {
+        this(new ConvolutionResampler(kernel), kernel);
+    }
+
+    ResampleMode(Resampler resampler, ConvolutionResampler.Kernel bandKernel) {
+        this.resampler = resampler;
+        this.bandKernel = bandKernel;
+    }
+
+    public Resampler getResampler() {
+        return resampler;
+    }
+
+    /**
+     * Ядро для масштабування джерела, що декодується смугами (BandScaler): для
+     * фільтрів-згорток те саме, для решти — найближче за характером
+     */
+    public ConvolutionResampler.Kernel getBandKernel() {
+        return bandKernel;
+    }
+
+    /**
+     * Розбирає назву режиму без урахування регістру ("lanczos3", "area-average")
+     */
+    public static ResampleMode parse(String value) {
+        return valueOf(value.trim().toUpperCase().replace('-', '_'));
+    }
+}
@@ -0,0 +1,88 @@
+package imagecreator;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SinglePixelPackedSampleModel;
+
+/**
+ * Інтерфейс алгоритму масштабування зображення
+ */
+public interface Resampler {
+
+    /**
+     * Масштабує джерело до розміру цільового зображення типу TYPE_INT_RGB
+     */
+    default void resample(BufferedImage source, BufferedImage target) {
+        resample(source, target, Orientation.NORMAL);
+    }
+
+    /**
+     * Масштабує джерело і в тому ж проході повертає його з орієнтації збережених
+     * пікселів у орієнтацію відображення. Розмір цілі задається в орієнтації відображення.
+     */
+    void resample(BufferedImage source, BufferedImage target, Orientation orientation);
+
+    /**
+     * Повертає зображення типу TYPE_INT_RGB: саме джерело, якщо воно вже цього типу,
+     * або його копію з RasterPool, яку викликач повертає через releaseCopy
+     */
+    static BufferedImage toIntRgb(BufferedImage image) {
+        if (image.getType() == BufferedImage.TYPE_INT_RGB) {
+            return image;
+        }
+        BufferedImage copy = RasterPool.acquire(image.getWidth(), image.getHeight(),
+                BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = copy.createGraphics();
+        clearForAlpha(g, image, copy);
+        g.drawImage(image, 0, 0, null);
+        g.dispose();
+        return copy;
+    }
+
+    /**
+     * Повертає в пул копію, створену toIntRgb
+     */
+    static void releaseCopy(BufferedImage copy, BufferedImage original) {
+        if (copy != original) {
+            RasterPool.release(copy);
+        }
+    }
+
+    /**
+     * Буфер з пулу містить попередні пікселі; напівпрозоре джерело накладається
+     * на них, тому перед малюванням ціль зафарбовується чорним, як нове зображення
+     */
+    static void clearForAlpha(Graphics2D g, BufferedImage source, BufferedImage target) {
+        if (source.getColorModel().hasAlpha()) {
+            g.setColor(Color.BLACK);
+            g.fillRect(0, 0, target.getWidth(), target.getHeight());
+        }
+    }
+
+    /**
+     * Масив пікселів растра TYPE_INT_RGB
+     */
+    static int[] pixels(BufferedImage image) {
+        return ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+    }
+
+    /**
+     * Зміщення першого пікселя в масиві (ненульове для підзображень)
+     */
+    static int offset(BufferedImage image) {
+        SinglePixelPackedSampleModel model =
+                (SinglePixelPackedSampleModel) image.getRaster().getSampleModel();
+        int x = -image.getRaster().getSampleModelTranslateX();
+        int y = -image.getRaster().getSampleModelTranslateY();
+        return image.getRaster().getDataBuffer().getOffset() + y * model.getScanlineStride() + x;
+    }
+
+    /**
+     * Довжина рядка в масиві пікселів
+     */
+    static int stride(BufferedImage image) {
+        return ((SinglePixelPackedSampleModel) image.getRaster().getSampleModel()).getScanlineStride();
+    }
+}
@@ -0,0 +1,24 @@
+package imagecreator;
+
+import java.io.File;
+
+/**
+ * Тимчасовий файл одного варіанта зображення та його кінцеве ім'я
+ */
+public class ResizedOutput {
+    private final File tempFile;
+    private final File finalFile;
+
+    public ResizedOutput(File tempFile, File finalFile) {
+        this.tempFile = tempFile;
+        this.finalFile = finalFile;
+    }
+
+    public File getTempFile() {
+        return tempFile;
+    }
+
+    public File getFinalFile() {
+        return finalFile;
+    }
+}
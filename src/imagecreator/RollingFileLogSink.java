@@ -0,0 +1,87 @@
+package imagecreator;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Запис журналу у файл з ротацією за розміром: log, log.1 ... log.N.
+ * Кожен пакет записується одним буферизованим записом.
+ */
+public class RollingFileLogSink implements LogSink, AutoCloseable {
+    private static final int LINE_SEPARATOR_BYTES = System.lineSeparator().length();
+
+    private final File file;
+    private final long maxBytes;
+    private final int maxBackups;
+    private BufferedWriter writer;
+    private long size;
+
+    public RollingFileLogSink(File file, long maxBytes, int maxBackups) throws IOException {
+        this.file = file;
+        this.maxBytes = maxBytes;
+        this.maxBackups = maxBackups;
+        open();
+    }
+
+    private void open() throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            Files.createDirectories(parent.toPath());
+        }
+        writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        size = file.length();
+    }
+
+    @Override
+    public void write(List<Log.Record> batch) {
+        try {
+            for (Log.Record record : batch) {
+                String line = record.format();
+                writer.write(line);
+                writer.newLine();
+                // Розмір у байтах UTF-8, як і file.length() при відкритті
+                size += line.getBytes(StandardCharsets.UTF_8).length + LINE_SEPARATOR_BYTES;
+                if (size >= maxBytes) {
+                    roll();
+                }
+            }
+            writer.flush();
+        } catch (IOException e) {
+            System.err.println("WARNING: Cannot write log file " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Зсуває резервні копії (log.N-1 -> log.N ... log -> log.1) і відкриває новий файл
+     */
+    private void roll() throws IOException {
+        writer.close();
+        for (int i = maxBackups - 1; i >= 0; i--) {
+            File from = i == 0 ? file : new File(file.getPath() + "." + i);
+            if (from.exists()) {
+                Files.move(from.toPath(), new File(file.getPath() + "." + (i + 1)).toPath(),
+                        StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        if (maxBackups == 0) {
+            Files.deleteIfExists(file.toPath());
+        }
+        open();
+    }
+
+    @Override
+    public void close() {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            // Журнал закривається наприкінці роботи, помилку нікуди повідомити
+        }
+    }
+}
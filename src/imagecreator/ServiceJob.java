@@ -0,0 +1,170 @@
+package imagecreator;
+
+import java.io.File;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Задача служби (JobService): аргументи однієї пакетної обробки, її стан і
+ * підсумки. Поки задача в черзі, обробки ще немає; після запуску пауза й
+ * скасування передаються її BatchJob.
+ */
+public class ServiceJob {
+    public enum State {
+        QUEUED, RUNNING, PAUSED, SUCCEEDED, FAILED, CANCELLED;
+
+        public boolean isFinished() {
+            return this == SUCCEEDED || this == FAILED || this == CANCELLED;
+        }
+    }
+
+    private final String id;
+    private final List<String> arguments;
+    private final ImageCreatorCLI options;
+    /** Файл задачі в директорії черги або null для задач, переданих через HTTP */
+    private final File spoolFile;
+    private final Instant submitted = Instant.now();
+    private Instant started;
+    private Instant finished;
+    private State state = State.QUEUED;
+    private ImageCreator creator;
+    private String error;
+
+    ServiceJob(String id, List<String> arguments, ImageCreatorCLI options, File spoolFile) {
+        this.id = id;
+        this.arguments = List.copyOf(arguments);
+        this.options = options;
+        this.spoolFile = spoolFile;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    ImageCreatorCLI getOptions() {
+        return options;
+    }
+
+    File getSpoolFile() {
+        return spoolFile;
+    }
+
+    public File getOutputDirectory() {
+        return options.getOutputDirectory().getAbsoluteFile();
+    }
+
+    /**
+     * Стан задачі; призупинена обробка показується як PAUSED
+     */
+    public synchronized State getState() {
+        if (state == State.RUNNING && creator.getJob().getState() == BatchJob.State.PAUSED) {
+            return State.PAUSED;
+        }
+        return state;
+    }
+
+    /**
+     * Переводить задачу в RUNNING
+     *
+     * @return false, якщо задачу скасовано, поки вона чекала в черзі
+     */
+    synchronized boolean start(ImageCreator creator) {
+        if (state != State.QUEUED) {
+            return false;
+        }
+        this.creator = creator;
+        this.state = State.RUNNING;
+        this.started = Instant.now();
+        return true;
+    }
+
+    synchronized void finish(State state, String error) {
+        this.state = state;
+        this.error = error;
+        this.finished = Instant.now();
+    }
+
+    /**
+     * Скасовує задачу: з черги вона знімається одразу, обробка, що вже
+     * виконується, завершується як і при Ctrl+C у консольному режимі
+     */
+    public void cancel() {
+        ImageCreator running;
+        synchronized (this) {
+            if (state == State.QUEUED) {
+                finish(State.CANCELLED, null);
+                return;
+            }
+            running = state == State.RUNNING ? creator : null;
+        }
+        if (running != null) {
+            running.getJob().cancel();
+        }
+    }
+
+    public void pause() {
+        ImageCreator running = runningCreator();
+        if (running != null) {
+            running.getJob().pause();
+        }
+    }
+
+    public void resume() {
+        ImageCreator running = runningCreator();
+        if (running != null) {
+            running.getJob().resume();
+        }
+    }
+
+    /**
+     * Метрики обробки або null, поки задача в черзі
+     */
+    public synchronized PipelineMetrics getMetrics() {
+        return creator != null ? creator.getMetrics() : null;
+    }
+
+    private synchronized ImageCreator runningCreator() {
+        return state == State.RUNNING ? creator : null;
+    }
+
+    /**
+     * Стан і підсумки у вигляді рядків "ключ: значення" (відповідь HTTP і файл
+     * статусу в директорії черги)
+     */
+    public String formatStatus() {
+        State current = getState();
+        StringBuilder out = new StringBuilder();
+        PipelineMetrics metrics;
+        Instant startedAt;
+        Instant finishedAt;
+        String message;
+        synchronized (this) {
+            metrics = creator != null ? creator.getMetrics() : null;
+            startedAt = started;
+            finishedAt = finished;
+            message = error;
+        }
+        out.append("id: ").append(id).append('\n');
+        out.append("state: ").append(current).append('\n');
+        out.append("output: ").append(getOutputDirectory()).append('\n');
+        out.append("submitted: ").append(submitted).append('\n');
+        if (startedAt != null) {
+            out.append("started: ").append(startedAt).append('\n');
+        }
+        if (finishedAt != null) {
+            out.append("finished: ").append(finishedAt).append('\n');
+        }
+        if (metrics != null) {
+            out.append("processed: ").append(metrics.getCompleted()).append('\n');
+            out.append("failed: ").append(metrics.getFailed()).append('\n');
+            out.append("skipped: ").append(metrics.getSkipped()).append('\n');
+            out.append("cancelled: ").append(metrics.getCancelled()).append('\n');
+            out.append("in_flight: ").append(metrics.getInFlight()).append('\n');
+        }
+        if (message != null) {
+            out.append("error: ").append(OutputManifest.escape(message)).append('\n');
+        }
+        out.append("arguments: ").append(OutputManifest.escape(String.join(" ", arguments))).append('\n');
+        return out.toString();
+    }
+}
@@ -0,0 +1,155 @@
+package imagecreator;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Вибір області обрізання за деталізацією: на зменшеному попередньому перегляді
+ * рахується енергія градієнтів яскравості, і вікно обрізання ставиться туди,
+ * де її найбільше (з легкою перевагою центру кадру)
+ */
+public class SmartCrop {
+    /** Приблизна довша сторона попереднього перегляду */
+    private static final int PREVIEW_SIZE = 128;
+    /** Ціль subsampling перегляду: із запасом QUALITY_OVERSAMPLE виходить близько PREVIEW_SIZE */
+    private static final int PREVIEW_TARGET = PREVIEW_SIZE / ImageDecoder.QUALITY_OVERSAMPLE;
+    /** Наскільки сильно штрафується відхилення вікна від центру (0 — без штрафу) */
+    private static final double CENTER_BIAS = 0.25;
+
+    private final int sourceWidth;
+    private final int sourceHeight;
+    private final int previewWidth;
+    private final int previewHeight;
+    /** Таблиця сум енергії розміром (previewWidth + 1) x (previewHeight + 1) */
+    private final long[] integral;
+
+    private SmartCrop(int sourceWidth, int sourceHeight, int previewWidth, int previewHeight,
+                      long[] integral) {
+        this.sourceWidth = sourceWidth;
+        this.sourceHeight = sourceHeight;
+        this.previewWidth = previewWidth;
+        this.previewHeight = previewHeight;
+        this.integral = integral;
+    }
+
+    /**
+     * Аналізує джерело за його закодованим вмістом через окреме дешеве декодування
+     * з subsampling. Потрібне лише там, де вікна розміщуються ще до декодування
+     * (декодування смугами); інакше див. analyze(BufferedImage, ...).
+     *
+     * @param sourceWidth  ширина джерела в орієнтації відображення
+     * @param sourceHeight висота джерела в орієнтації відображення
+     * @param orientation  орієнтація збережених пікселів; аналіз і вікна — в орієнтації відображення
+     */
+    public static SmartCrop analyze(ByteBuffer data, int sourceWidth, int sourceHeight,
+                                    Orientation orientation) throws IOException {
+        BufferedImage preview = ImageDecoder.decode(data, PREVIEW_TARGET, PREVIEW_TARGET);
+        try {
+            return analyze(preview, 1, sourceWidth, sourceHeight, orientation);
+        } finally {
+            RasterPool.release(preview);
+        }
+    }
+
+    /**
+     * Аналізує кадр джерела, уже декодований для масштабування: попередній перегляд
+     * береться з нього кожним n-м пікселем, без повторного декодування
+     *
+     * @param decoded увесь кадр джерела у збережених пікселях (можливо, з subsampling)
+     */
+    public static SmartCrop analyze(BufferedImage decoded, int sourceWidth, int sourceHeight,
+                                    Orientation orientation) {
+        int step = ImageDecoder.subsamplingStep(decoded.getWidth(), decoded.getHeight(),
+                PREVIEW_TARGET, PREVIEW_TARGET);
+        return analyze(decoded, step, sourceWidth, sourceHeight, orientation);
+    }
+
+    private static SmartCrop analyze(BufferedImage image, int step, int sourceWidth, int sourceHeight,
+                                     Orientation orientation) {
+        int storedWidth = (image.getWidth() + step - 1) / step;
+        int storedHeight = (image.getHeight() + step - 1) / step;
+        int[] rgb = new int[storedWidth * storedHeight];
+        for (int y = 0; y < storedHeight; y++) {
+            for (int x = 0; x < storedWidth; x++) {
+                rgb[y * storedWidth + x] = image.getRGB(x * step, y * step);
+            }
+        }
+
+        // Яскравість записується одразу в орієнтації відображення
+        int width = orientation.transformedWidth(storedWidth, storedHeight);
+        int height = orientation.transformedHeight(storedWidth, storedHeight);
+        int origin = orientation.origin(storedWidth, storedHeight, 0, width);
+        int stepX = orientation.stepX(width);
+        int stepY = orientation.stepY(width);
+        int[] luma = new int[rgb.length];
+        for (int y = 0; y < storedHeight; y++) {
+            for (int x = 0; x < storedWidth; x++) {
+                int p = rgb[y * storedWidth + x];
+                luma[origin + y * stepY + x * stepX] =
+                        (((p >> 16) & 0xFF) * 77 + ((p >> 8) & 0xFF) * 150 + (p & 0xFF) * 29) >> 8;
+            }
+        }
+
+        int stride = width + 1;
+        long[] integral = new long[stride * (height + 1)];
+        for (int y = 0; y < height; y++) {
+            long rowSum = 0;
+            for (int x = 0; x < width; x++) {
+                int i = y * width + x;
+                int dx = x + 1 < width ? Math.abs(luma[i + 1] - luma[i]) : 0;
+                int dy = y + 1 < height ? Math.abs(luma[i + width] - luma[i]) : 0;
+                rowSum += dx + dy;
+                integral[(y + 1) * stride + x + 1] = integral[y * stride + x + 1] + rowSum;
+            }
+        }
+        return new SmartCrop(sourceWidth, sourceHeight, width, height, integral);
+    }
+
+    /**
+     * Найкраще розташування вікна cropWidth x cropHeight у координатах джерела
+     */
+    public Rectangle bestCrop(int cropWidth, int cropHeight) {
+        double scaleX = (double) previewWidth / sourceWidth;
+        double scaleY = (double) previewHeight / sourceHeight;
+        int windowWidth = clamp((int) Math.round(cropWidth * scaleX), 1, previewWidth);
+        int windowHeight = clamp((int) Math.round(cropHeight * scaleY), 1, previewHeight);
+        int rangeX = previewWidth - windowWidth;
+        int rangeY = previewHeight - windowHeight;
+
+        // Відлік від центрального вікна: на однорідному кадрі воно й залишиться
+        int bestX = rangeX / 2;
+        int bestY = rangeY / 2;
+        double bestScore = score(bestX, bestY, windowWidth, windowHeight, rangeX, rangeY);
+        for (int y = 0; y <= rangeY; y++) {
+            for (int x = 0; x <= rangeX; x++) {
+                double score = score(x, y, windowWidth, windowHeight, rangeX, rangeY);
+                if (score > bestScore) {
+                    bestScore = score;
+                    bestX = x;
+                    bestY = y;
+                }
+            }
+        }
+
+        int sourceX = clamp((int) Math.round(bestX / scaleX), 0, sourceWidth - cropWidth);
+        int sourceY = clamp((int) Math.round(bestY / scaleY), 0, sourceHeight - cropHeight);
+        return new Rectangle(sourceX, sourceY, cropWidth, cropHeight);
+    }
+
+    private double score(int x, int y, int windowWidth, int windowHeight, int rangeX, int rangeY) {
+        int stride = previewWidth + 1;
+        long energy = integral[(y + windowHeight) * stride + x + windowWidth]
+                - integral[y * stride + x + windowWidth]
+                - integral[(y + windowHeight) * stride + x]
+                + integral[y * stride + x];
+        double offCenterX = rangeX > 0 ? Math.abs(2.0 * x / rangeX - 1) : 0;
+        double offCenterY = rangeY > 0 ? Math.abs(2.0 * y / rangeY - 1) : 0;
+        return energy * (1 - CENTER_BIAS * Math.max(offCenterX, offCenterY));
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
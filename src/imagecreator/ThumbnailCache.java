@@ -0,0 +1,277 @@
+package imagecreator;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Спільний для різних запусків і вихідних директорій кеш закодованих варіантів.
+ * Ключ — хеш вмісту джерела разом з параметрами, від яких залежать пікселі й
+ * кодування (без префікса імен), тож однакові джерела в різних папках чи під
+ * різними іменами дають той самий результат. Варіант зберігається окремим
+ * файлом ab/&lt;ключ&gt;-&lt;номер&gt;.&lt;формат&gt; (з правами за umask, щоб кешем могли
+ * користуватися інші користувачі) і копіюється у вихідну директорію: спільний
+ * inode з результатами означав би, що зміна результату чи його часу модифікації
+ * зачіпає кеш і всі інші результати з того самого запису.
+ * Розмір обмежено: найдавніше використані файли видаляються. Індекс тримається
+ * в пам'яті, а порядок використання між запусками зберігається у файлі INDEX_FILE.
+ */
+public class ThumbnailCache {
+    public static final long DEFAULT_CAPACITY = 1L << 30;
+    /** Версія формату ключа: зміна алгоритмів обробки робить старі записи недосяжними */
+    private static final String KEY_VERSION = "v1";
+    /** Тимчасові файли, старші за цей вік, залишилися після збою і видаляються */
+    private static final long STALE_TEMP_MILLIS = 24L * 60 * 60 * 1000;
+    /** Імена файлів кешу від найдавніше до щойно використаного */
+    private static final String INDEX_FILE = ".index";
+
+    private final Path directory;
+    private final long capacity;
+    /** Ім'я файлу (відносно directory) -> розмір; порядок доступу — від найдавнішого */
+    private final LinkedHashMap<String, Long> index = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalBytes;
+
+    public ThumbnailCache(File directory, long capacity) {
+        this.directory = directory.toPath();
+        this.capacity = capacity;
+    }
+
+    /**
+     * Директорія кешу за замовчуванням (~/.cache/imagecreator)
+     */
+    public static File defaultDirectory() {
+        return new File(System.getProperty("user.home"), ".cache" + File.separator + "imagecreator");
+    }
+
+    /**
+     * Будує індекс з файлів кешу і видаляє зайве понад ліміт розміру. Файли, яких
+     * немає у збереженому порядку використання, вважаються найдавнішими.
+     */
+    public void load() throws IOException {
+        Files.createDirectories(directory);
+        Map<String, BasicFileAttributes> files = new HashMap<>();
+        long now = System.currentTimeMillis();
+        try (DirectoryStream<Path> buckets = Files.newDirectoryStream(directory, Files::isDirectory)) {
+            for (Path bucket : buckets) {
+                try (DirectoryStream<Path> stream = Files.newDirectoryStream(bucket)) {
+                    for (Path file : stream) {
+                        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                        if (!attributes.isRegularFile()) continue;
+                        if (file.getFileName().toString().startsWith(OutputCommitter.TEMP_PREFIX)) {
+                            if (now - attributes.lastModifiedTime().toMillis() > STALE_TEMP_MILLIS) {
+                                deleteQuietly(file);
+                            }
+                            continue;
+                        }
+                        files.put(directory.relativize(file).toString(), attributes);
+                    }
+                } catch (IOException e) {
+                    Log.warn("Cannot read thumbnail cache directory " + bucket + ": " + e.getMessage());
+                }
+            }
+        }
+
+        List<String> order = new ArrayList<>(files.keySet());
+        order.sort(Comparator.comparing(name -> files.get(name).lastModifiedTime()));
+        List<String> used = readIndex();
+        order.removeAll(new HashSet<>(used));
+        for (String name : used) {
+            if (files.containsKey(name)) {
+                order.add(name);
+            }
+        }
+        synchronized (this) {
+            for (String name : order) {
+                long size = files.get(name).size();
+                index.put(name, size);
+                totalBytes += size;
+            }
+        }
+        evict();
+        Log.info("Thumbnail cache: " + index.size() + " file(s), "
+                + String.format("%.1f MB", totalBytes / 1048576.0) + " in " + directory);
+    }
+
+    /**
+     * Ключ запису: хеш вмісту джерела і параметрів обробки всіх варіантів задачі
+     * (каскад робить менші варіанти залежними від більших)
+     */
+    public static String key(String sourceHash, ImageTask task, String sourceFormat) {
+        String parameters = KEY_VERSION + "\n" + sourceHash + "\n" + sourceFormat + "\n"
+                + ImageTask.parametersKey("", task.getOutputSpecs(), task.getResampleMode(),
+                        task.getFitMode(), task.getEncoderSettings());
+        return ContentHash.of(ByteBuffer.wrap(parameters.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Шукає всі варіанти задачі в індексі, не звертаючись до файлової системи,
+     * і позначає знайдені щойно використаними
+     *
+     * @param formats формат кожного варіанта у порядку task.getOutputSpecs()
+     * @return файли кешу в тому самому порядку або null, якщо бракує хоч одного
+     */
+    public synchronized List<Path> lookup(String key, List<String> formats) {
+        List<Path> found = new ArrayList<>(formats.size());
+        for (int i = 0; i < formats.size(); i++) {
+            String name = entryName(key, i, formats.get(i));
+            if (index.get(name) == null) {
+                return null;
+            }
+            found.add(directory.resolve(name));
+        }
+        return found;
+    }
+
+    /**
+     * Копіює файл кешу в target. Щойно використаним файл позначає вже lookup.
+     * Недоступний запис (видалений іншим процесом, чужі права) забувається,
+     * а виклик отримує помилку й обробляє джерело звичайним способом.
+     */
+    public void materialize(Path cached, Path target) throws IOException {
+        try {
+            Files.copy(cached, target, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            forget(cached);
+            throw e;
+        }
+    }
+
+    /**
+     * Додає закодований варіант до кешу окремою копією data. Помилки кешу не
+     * впливають на обробку і лише записуються в журнал.
+     */
+    public void store(String key, int variant, String format, ByteBuffer data) {
+        String name = entryName(key, variant, format);
+        Path target = directory.resolve(name);
+        Path temp = null;
+        try {
+            Files.createDirectories(target.getParent());
+            temp = OutputCommitter.createTempFile(target.getParent(), "." + format);
+            ImageEncoder.writeFile(data, temp);
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            Log.warn("Cannot store in thumbnail cache: " + e.getMessage());
+            deleteQuietly(temp);
+            return;
+        }
+
+        synchronized (this) {
+            Long previous = index.put(name, (long) data.remaining());
+            totalBytes += data.remaining() - (previous != null ? previous : 0);
+        }
+        evict();
+    }
+
+    /**
+     * Зберігає порядок використання файлів для наступних запусків. Запис
+     * атомарний; помилка лише записується в журнал.
+     */
+    public void saveIndex() {
+        List<String> names;
+        synchronized (this) {
+            names = new ArrayList<>(index.keySet());
+        }
+        Path temp = null;
+        try {
+            temp = OutputCommitter.createTempFile(directory, INDEX_FILE);
+            Files.write(temp, names, StandardCharsets.UTF_8);
+            try {
+                Files.move(temp, directory.resolve(INDEX_FILE), StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, directory.resolve(INDEX_FILE), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            Log.warn("Cannot save thumbnail cache index: " + e.getMessage());
+            deleteQuietly(temp);
+        }
+    }
+
+    private List<String> readIndex() {
+        Path file = directory.resolve(INDEX_FILE);
+        if (!Files.isRegularFile(file)) {
+            return List.of();
+        }
+        try {
+            return Files.readAllLines(file, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            Log.warn("Cannot read thumbnail cache index: " + e.getMessage());
+            return List.of();
+        }
+    }
+
+    public synchronized int getFileCount() {
+        return index.size();
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * Видаляє найдавніше використані файли, доки кеш не вміститься в ліміт
+     */
+    private void evict() {
+        List<String> evicted = new ArrayList<>();
+        synchronized (this) {
+            Iterator<Map.Entry<String, Long>> eldest = index.entrySet().iterator();
+            while (totalBytes > capacity && eldest.hasNext()) {
+                Map.Entry<String, Long> entry = eldest.next();
+                totalBytes -= entry.getValue();
+                evicted.add(entry.getKey());
+                eldest.remove();
+            }
+        }
+        for (String name : evicted) {
+            deleteQuietly(directory.resolve(name));
+        }
+        if (!evicted.isEmpty()) {
+            Log.debug("Thumbnail cache: evicted " + evicted.size() + " file(s)");
+        }
+    }
+
+    private synchronized void forget(Path cached) {
+        Long size = index.remove(directory.relativize(cached).toString());
+        if (size != null) {
+            totalBytes -= size;
+        }
+    }
+
+    /**
+     * Файли розкладені по піддиректоріях за першими двома символами ключа,
+     * щоб директорії не ставали завеликими
+     */
+    private static String entryName(String key, int variant, String format) {
+        return key.substring(0, 2) + File.separator + key + "-" + variant + "." + format;
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            Log.warn("Cannot delete " + file + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package imagecreator;
+
+import java.awt.Rectangle;
+
+/**
+ * Геометрія одного вихідного варіанта: яку частину джерела взяти, до якого
+ * розміру її масштабувати і де розмістити на полотні результату
+ */
+public class VariantLayout {
+    private final Rectangle crop;
+    private final int contentWidth;
+    private final int contentHeight;
+    private final int canvasWidth;
+    private final int canvasHeight;
+    private final int contentX;
+    private final int contentY;
+
+    /**
+     * @param crop прямокутник джерела в його власних координатах
+     */
+    public VariantLayout(Rectangle crop, int contentWidth, int contentHeight,
+                         int canvasWidth, int canvasHeight, int contentX, int contentY) {
+        this.crop = crop;
+        this.contentWidth = contentWidth;
+        this.contentHeight = contentHeight;
+        this.canvasWidth = canvasWidth;
+        this.canvasHeight = canvasHeight;
+        this.contentX = contentX;
+        this.contentY = contentY;
+    }
+
+    public Rectangle getCrop() {
+        return crop;
+    }
+
+    public int getContentWidth() {
+        return contentWidth;
+    }
+
+    public int getContentHeight() {
+        return contentHeight;
+    }
+
+    public int getCanvasWidth() {
+        return canvasWidth;
+    }
+
+    public int getCanvasHeight() {
+        return canvasHeight;
+    }
+
+    public int getContentX() {
+        return contentX;
+    }
+
+    public int getContentY() {
+        return contentY;
+    }
+
+    /**
+     * Полотно більше за вміст (режим PAD), тому потрібне заповнення полів
+     */
+    public boolean isPadded() {
+        return canvasWidth != contentWidth || canvasHeight != contentHeight;
+    }
+}
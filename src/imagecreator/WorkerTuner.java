@@ -0,0 +1,121 @@
+package imagecreator;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Адаптивний підбір кількості потоків обробки методом «сходження на пагорб»:
+ * періодично змінює розмір пулу на один потік у поточному напрямку і розвертається,
+ * якщо пропускна здатність (зображень за секунду) впала. При нестачі пам'яті
+ * пул лише зменшується.
+ */
+public class WorkerTuner implements Runnable {
+    /** Падіння пропускної здатності, менше за цей поріг, вважається шумом */
+    private static final double TOLERANCE = 0.05;
+    /** Частка heap, зайнята після збирання сміття, від якої пул зменшується */
+    private static final double HEAP_PRESSURE = 0.85;
+    /** Частка бюджету пам'яті, зайнята задачами, після якої пул не збільшується */
+    private static final double BUDGET_PRESSURE = 0.9;
+    private static final int PENDING_PER_THREAD = 4;
+
+    private final ForkJoinPool pool;
+    private final PipelineMetrics metrics;
+    private final AdmissionController admission;
+    private final int minThreads;
+    private final int maxThreads;
+    /** Пули heap, для яких JVM повідомляє заповнення після збирання сміття */
+    private final List<MemoryPoolMXBean> heapPools;
+
+    private long lastFinished;
+    private long lastNanos;
+    private double lastThroughput;
+    private int direction = 1;
+
+    public WorkerTuner(ForkJoinPool pool, PipelineMetrics metrics, AdmissionController admission,
+                       int minThreads, int maxThreads) {
+        this.pool = pool;
+        this.metrics = metrics;
+        this.admission = admission;
+        this.minThreads = minThreads;
+        this.maxThreads = maxThreads;
+        this.lastNanos = System.nanoTime();
+        this.heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(heapPool -> heapPool.getType() == MemoryType.HEAP && heapPool.getCollectionUsage() != null)
+                .toList();
+    }
+
+    @Override
+    public void run() {
+        long now = System.nanoTime();
+        long finished = metrics.getCompleted() + metrics.getFailed();
+        double seconds = (now - lastNanos) / 1e9;
+        double throughput = seconds > 0 ? (finished - lastFinished) / seconds : 0;
+        lastNanos = now;
+        lastFinished = finished;
+
+        int size = pool.getParallelism();
+        if (underMemoryPressure()) {
+            if (size > minThreads) {
+                resize(size - 1, "memory pressure");
+            }
+            direction = -1;
+            lastThroughput = throughput;
+            return;
+        }
+
+        // Пул не насичений (бракує вхідних файлів) — вимірювання нічого не кажуть про його розмір
+        if (pool.getQueuedSubmissionCount() == 0 && pool.getActiveThreadCount() < size) {
+            lastThroughput = throughput;
+            return;
+        }
+
+        if (lastThroughput > 0 && throughput < lastThroughput * (1 - TOLERANCE)) {
+            direction = -direction;
+        }
+        int next = Math.max(minThreads, Math.min(maxThreads, size + direction));
+        if (next == size) {
+            direction = -direction;
+            next = Math.max(minThreads, Math.min(maxThreads, size + direction));
+        }
+        lastThroughput = throughput;
+        if (next != size) {
+            resize(next, String.format("%.1f images/sec", throughput));
+        }
+    }
+
+    /**
+     * Змінює розмір пулу. Зайві потоки ForkJoinPool завершуються самі, коли стають вільними.
+     */
+    public void resize(int threads, String reason) {
+        int size = pool.setParallelism(threads);
+        admission.setMaxPendingTasks(threads * PENDING_PER_THREAD);
+        metrics.setWorkerThreads(threads);
+        Log.debug("Worker threads: " + size + " -> " + threads + " (" + reason + ")");
+    }
+
+    private boolean underMemoryPressure() {
+        double heapUsed = (double) heapUsedAfterGc() / Runtime.getRuntime().maxMemory();
+        double budgetUsed = (double) admission.getInFlightBytes() / admission.getCapacity();
+        return heapUsed > HEAP_PRESSURE || budgetUsed > BUDGET_PRESSURE;
+    }
+
+    /**
+     * Обсяг heap, що лишився зайнятим після останнього збирання сміття в кожному пулі.
+     * Поточне заповнення (totalMemory - freeMemory) включає ще не зібране сміття
+     * і при звичайному виділенні пам'яті регулярно підходить до максимуму.
+     */
+    private long heapUsedAfterGc() {
+        long used = 0;
+        for (MemoryPoolMXBean heapPool : heapPools) {
+            MemoryUsage usage = heapPool.getCollectionUsage();
+            if (usage != null) {
+                used += usage.getUsed();
+            }
+        }
+        return used;
+    }
+}